@@ -7,10 +7,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import java.time.LocalDateTime;
 
+// The load test profile brings its own data, see LoadTestDataGenerator
 @Configuration
+@Profile("!loadtest")
 public class DataLoader {
 
     private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
@@ -0,0 +1,70 @@
+package com.example.airlinebooking.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Tables created before the move to pooled sequences hold ids handed out by IDENTITY columns,
+// while a sequence created by the schema update starts at 1. Moves each sequence past the
+// highest existing id before anything is inserted. Only Postgres carries such history;
+// other databases (H2 in tests) start empty.
+@Configuration
+public class IdSequenceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceConfig.class);
+
+    private static final String[][] SEQUENCES = {
+            {"flights", "flights_seq"},
+            {"bookings", "bookings_seq"},
+            {"users", "users_seq"}
+    };
+
+    // Matches allocationSize on the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Taking the EntityManagerFactory makes this run after the schema update created the sequences
+    public IdSequenceConfig(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void alignSequences() {
+        if (!"PostgreSQL".equals(databaseName())) {
+            return;
+        }
+        moveSequencesPastExistingIds();
+    }
+
+    // Also run after rows are written with explicit ids, see LoadTestDataGenerator
+    public void moveSequencesPastExistingIds() {
+        boolean postgres = "PostgreSQL".equals(databaseName());
+        for (String[] sequence : SEQUENCES) {
+            String table = sequence[0];
+            String name = sequence[1];
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (!postgres) {
+                // The first nextval then ends the block that starts right after maxId
+                jdbcTemplate.execute("ALTER SEQUENCE " + name + " RESTART WITH " + (maxId + ALLOCATION_SIZE));
+                continue;
+            }
+            Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + name, Long.class);
+            // The pooled optimizer hands out the block ending at the next value, so the next
+            // block starts right after last_value
+            if (lastValue < maxId) {
+                jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, name, maxId);
+                logger.info("Moved {} past existing id {}", name, maxId);
+            }
+        }
+    }
+
+    private String databaseName() {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.airlinebooking.config;
+
+import com.example.airlinebooking.model.BookingStatus;
+import com.example.airlinebooking.model.SeatMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+// Fills an empty database with a large synthetic dataset for performance work - see
+// application-loadtest.properties. Rows are written with plain JDBC batches by parallel
+// workers, each owning a fixed range of flights or users, and the id sequences are moved
+// past the generated ids afterwards.
+@Component
+@Profile("loadtest")
+public class LoadTestDataGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestDataGenerator.class);
+
+    // Rows per unit of parallel work; fixed, so the split never depends on the thread count
+    private static final int PARTITION_ROWS = 10_000;
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (id, email, name, password) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_FLIGHT =
+            "INSERT INTO flights (id, origin, destination, departure_time, arrival_time, capacity, " +
+            "available_seats, seat_map, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_BOOKING =
+            "INSERT INTO bookings (id, user_id, flight_id, status, seat_number, version) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final IdSequenceConfig idSequenceConfig;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+    @Value("${loadtest.airports:200}")
+    private int airports;
+    @Value("${loadtest.flights:1000000}")
+    private int flights;
+    @Value("${loadtest.users:500000}")
+    private int users;
+    @Value("${loadtest.bookings:5000000}")
+    private long bookings;
+    @Value("${loadtest.anchor-date:}")
+    private String anchorDate;
+    @Value("${loadtest.days-past:30}")
+    private int daysPast;
+    @Value("${loadtest.days-ahead:180}")
+    private int daysAhead;
+    @Value("${loadtest.airport-skew:1.0}")
+    private double airportSkew;
+    @Value("${loadtest.flight-skew:0.8}")
+    private double flightSkew;
+    @Value("${loadtest.cancel-rate:0.05}")
+    private double cancelRate;
+    @Value("${loadtest.password:loadtest}")
+    private String password;
+    @Value("${loadtest.threads:0}")
+    private int threads;
+    @Value("${loadtest.batch-size:1000}")
+    private int batchSize;
+
+    public LoadTestDataGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+                                 IdSequenceConfig idSequenceConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.idSequenceConfig = idSequenceConfig;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        // Generated ids start at 1, so anything already there would collide
+        for (String table : List.of("users", "flights", "bookings")) {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+            if (rows > 0) {
+                logger.warn("Skipping load test data: {} already holds {} rows", table, rows);
+                return;
+            }
+        }
+
+        long started = System.nanoTime();
+        LocalDate anchor = anchorDate.isBlank() ? LocalDate.now() : LocalDate.parse(anchorDate);
+        LoadTestPlan plan = new LoadTestPlan(seed, airports, flights, users, bookings, anchor,
+                daysPast, daysAhead, airportSkew, flightSkew, cancelRate);
+        int[] bookingCounts = plan.bookingCounts();
+        // First booking id of every flight, so booking partitions need no coordination
+        long[] firstBookingIds = new long[flights];
+        for (int i = 1; i < flights; i++) {
+            firstBookingIds[i] = firstBookingIds[i - 1] + bookingCounts[i - 1];
+        }
+        logger.info("Planned {} flights, {} users and {} bookings from seed {} in {} ms",
+                flights, users, bookings, seed, (System.nanoTime() - started) / 1_000_000);
+
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            // Every user shares one hash - hashing millions of passwords would dominate the run
+            String passwordHash = passwordEncoder.encode(password);
+            write(executor, "users", users, INSERT_USER, index -> new Object[]{
+                    index + 1L, "user" + (index + 1) + "@loadtest.example", "Load Test User " + (index + 1), passwordHash});
+
+            write(executor, "flights", flights, INSERT_FLIGHT, index -> {
+                LoadTestPlan.FlightRow flight = plan.flight(index);
+                SeatMap seatMap = SeatMap.empty(flight.capacity());
+                boolean[] cancelled = plan.cancellations(index, bookingCounts[index]);
+                for (int seat = 0; seat < cancelled.length; seat++) {
+                    if (!cancelled[seat]) {
+                        seatMap.take(seat + 1);
+                    }
+                }
+                return new Object[]{flight.id(), flight.origin(), flight.destination(), flight.departureTime(),
+                        flight.arrivalTime(), flight.capacity(), seatMap.availableSeats(), seatMap.toBytes()};
+            });
+
+            writeBookings(executor, plan, bookingCounts, firstBookingIds);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        idSequenceConfig.moveSequencesPastExistingIds();
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(database)) {
+            // Fresh statistics, so the planner sees the data as it would in production
+            jdbcTemplate.execute("ANALYZE users, flights, bookings");
+        }
+        logger.info("Load test data written in {} s", (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    // One task per partition of rows; each sends its rows in batches over its own connection
+    private void write(ExecutorService executor, String table, int rows, String sql,
+                       IntFunction<Object[]> row) throws InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < rows; from += PARTITION_ROWS) {
+            int start = from;
+            int end = Math.min(rows, from + PARTITION_ROWS);
+            tasks.add(executor.submit(() -> {
+                List<Object[]> batch = new ArrayList<>(batchSize);
+                for (int index = start; index < end; index++) {
+                    batch.add(row.apply(index));
+                    if (batch.size() == batchSize) {
+                        jdbcTemplate.batchUpdate(sql, batch);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                }
+            }));
+        }
+        await(tasks);
+        logRate(table, rows, started);
+    }
+
+    // Partitioned by flight, as the bookings of one flight are numbered consecutively
+    private void writeBookings(ExecutorService executor, LoadTestPlan plan, int[] bookingCounts,
+                               long[] firstBookingIds) throws InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        AtomicLong written = new AtomicLong();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < flights; from += PARTITION_ROWS) {
+            int start = from;
+            int end = Math.min(flights, from + PARTITION_ROWS);
+            tasks.add(executor.submit(() -> {
+                List<Object[]> batch = new ArrayList<>(batchSize);
+                for (int flight = start; flight < end; flight++) {
+                    boolean[] cancelled = plan.cancellations(flight, bookingCounts[flight]);
+                    for (int seat = 0; seat < cancelled.length; seat++) {
+                        BookingStatus status = cancelled[seat] ? BookingStatus.CANCELLED : BookingStatus.CONFIRMED;
+                        batch.add(new Object[]{firstBookingIds[flight] + seat + 1, plan.user(flight, seat) + 1L,
+                                flight + 1L, status.name(), seat + 1});
+                        if (batch.size() == batchSize) {
+                            jdbcTemplate.batchUpdate(INSERT_BOOKING, batch);
+                            written.addAndGet(batch.size());
+                            batch.clear();
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_BOOKING, batch);
+                    written.addAndGet(batch.size());
+                }
+            }));
+        }
+        await(tasks);
+        logRate("bookings", written.get(), started);
+    }
+
+    private static void await(List<Future<?>> tasks) throws InterruptedException, ExecutionException {
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+    }
+
+    private static void logRate(String table, long rows, long started) {
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        logger.info("Wrote {} {} in {} ms ({} rows/s)", rows, table, millis, rows * 1000 / millis);
+    }
+}
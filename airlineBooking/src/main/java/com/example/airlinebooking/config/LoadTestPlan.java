@@ -0,0 +1,221 @@
+package com.example.airlinebooking.config;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Deterministic description of the load test dataset. Every row is a pure function of the
+// seed and its index, so partitions can be generated on any thread in any order and two runs
+// with the same settings produce identical tables. Ids are index + 1.
+final class LoadTestPlan {
+
+    // Three-letter codes, so at most 26^3 airports
+    static final int MAX_AIRPORTS = 26 * 26 * 26;
+
+    private static final int[] CAPACITIES = {70, 120, 150, 180, 220, 300, 400};
+    private static final double[] CAPACITY_WEIGHTS = {1, 3, 5, 6, 3, 1.5, 0.5};
+    // Departures bunch into a morning and an evening bank
+    private static final double[] HOUR_WEIGHTS = {
+            0.2, 0.1, 0.1, 0.1, 0.3, 1.0, 3.0, 4.0, 3.5, 2.5, 2.0, 1.8,
+            1.8, 1.8, 2.0, 2.5, 3.0, 3.5, 3.5, 3.0, 2.0, 1.2, 0.8, 0.4};
+    // Monday first - Fridays and Sundays are the busiest days
+    private static final double[] WEEKDAY_WEIGHTS = {1.1, 0.9, 0.9, 1.0, 1.3, 0.8, 1.2};
+
+    // Airports sit on a flat map of this size; block time follows the distance between them
+    private static final double MAP_WIDTH_KM = 9000;
+    private static final double MAP_HEIGHT_KM = 4000;
+    private static final double CRUISE_KM_PER_MINUTE = 13.5;
+    private static final int TAXI_MINUTES = 30;
+
+    // Separate random streams per table, so adding a column to one never shifts another
+    private static final long AIRPORT_STREAM = 1;
+    private static final long FLIGHT_STREAM = 2;
+    private static final long BOOKING_STREAM = 3;
+
+    record FlightRow(long id, String origin, String destination, LocalDateTime departureTime,
+                     LocalDateTime arrivalTime, int capacity) {
+    }
+
+    private final long seed;
+    private final int flightCount;
+    private final int userCount;
+    private final long bookingCount;
+    private final double airportSkew;
+    private final double flightSkew;
+    private final double cancelRate;
+    private final LocalDate firstDay;
+
+    private final String[] airportCodes;
+    private final double[] airportX;
+    private final double[] airportY;
+    private final double[] dayWeights;
+    private final int[] capacities;
+
+    LoadTestPlan(long seed, int airportCount, int flightCount, int userCount, long bookingCount,
+                 LocalDate anchorDate, int daysPast, int daysAhead,
+                 double airportSkew, double flightSkew, double cancelRate) {
+        if (airportCount < 2 || airportCount > MAX_AIRPORTS) {
+            throw new IllegalArgumentException("Airports must be between 2 and " + MAX_AIRPORTS);
+        }
+        if (flightCount < 1 || userCount < 1 || bookingCount < 0) {
+            throw new IllegalArgumentException("Flights and users must be at least 1, bookings not negative");
+        }
+        this.seed = seed;
+        this.flightCount = flightCount;
+        this.userCount = userCount;
+        this.bookingCount = bookingCount;
+        this.airportSkew = airportSkew;
+        this.flightSkew = flightSkew;
+        this.cancelRate = cancelRate;
+        this.firstDay = anchorDate.minusDays(daysPast);
+
+        // Airport codes are a scrambled walk over AAA..ZZZ, 7919 being coprime to 26^3
+        SplittableRandom random = random(AIRPORT_STREAM, 0);
+        airportCodes = new String[airportCount];
+        airportX = new double[airportCount];
+        airportY = new double[airportCount];
+        for (int i = 0; i < airportCount; i++) {
+            int code = (int) ((i * 7919L + seed) % MAX_AIRPORTS + MAX_AIRPORTS) % MAX_AIRPORTS;
+            airportCodes[i] = "" + (char) ('A' + code / 676) + (char) ('A' + code / 26 % 26) + (char) ('A' + code % 26);
+            airportX[i] = random.nextDouble() * MAP_WIDTH_KM;
+            airportY[i] = random.nextDouble() * MAP_HEIGHT_KM;
+        }
+
+        dayWeights = new double[daysPast + daysAhead];
+        for (int day = 0; day < dayWeights.length; day++) {
+            DayOfWeek weekday = firstDay.plusDays(day).getDayOfWeek();
+            dayWeights[day] = WEEKDAY_WEIGHTS[weekday.getValue() - 1];
+        }
+
+        // Needed up front to place bookings without overfilling a flight
+        capacities = IntStream.range(0, flightCount).parallel()
+                .map(index -> flight(index).capacity())
+                .toArray();
+        long totalSeats = IntStream.of(capacities).asLongStream().sum();
+        if (bookingCount > totalSeats) {
+            throw new IllegalArgumentException(bookingCount + " bookings do not fit into " + totalSeats + " seats");
+        }
+    }
+
+    int flightCount() {
+        return flightCount;
+    }
+
+    int userCount() {
+        return userCount;
+    }
+
+    FlightRow flight(int index) {
+        SplittableRandom random = random(FLIGHT_STREAM, index);
+        int origin = skewed(random, airportCodes.length, airportSkew);
+        int destination;
+        do {
+            destination = skewed(random, airportCodes.length, airportSkew);
+        } while (destination == origin);
+
+        LocalDateTime departure = firstDay.plusDays(weighted(random, dayWeights))
+                .atTime(weighted(random, HOUR_WEIGHTS), random.nextInt(12) * 5);
+        double distance = Math.hypot(airportX[origin] - airportX[destination], airportY[origin] - airportY[destination]);
+        long blockMinutes = Math.round((distance / CRUISE_KM_PER_MINUTE + TAXI_MINUTES) / 5) * 5;
+        int capacity = CAPACITIES[weighted(random, CAPACITY_WEIGHTS)];
+        return new FlightRow(index + 1L, airportCodes[origin], airportCodes[destination],
+                departure, departure.plusMinutes(blockMinutes), capacity);
+    }
+
+    // Bookings per flight. Popularity follows a power law over a scrambled ranking, so the
+    // busy flights are spread over the whole table; a draw that lands on a full flight
+    // moves on to the next rank with room. Full ranks point past themselves, and lookups
+    // shorten those chains, so popular flights filling up never slows the draws down.
+    int[] bookingCounts() {
+        int[] counts = new int[flightCount];
+        int[] nextOpen = IntStream.range(0, flightCount).toArray();
+        long stride = coprimeStride(flightCount);
+        SplittableRandom random = random(BOOKING_STREAM, -1);
+        for (long i = 0; i < bookingCount; i++) {
+            int rank = openRank(nextOpen, skewed(random, flightCount, flightSkew));
+            int flight = (int) (rank * stride % flightCount);
+            if (++counts[flight] == capacities[flight]) {
+                nextOpen[rank] = (rank + 1) % flightCount;
+            }
+        }
+        return counts;
+    }
+
+    // Which of a flight's bookings were cancelled - their seats are free again
+    boolean[] cancellations(int flightIndex, int bookings) {
+        SplittableRandom random = random(BOOKING_STREAM, flightIndex);
+        boolean[] cancelled = new boolean[bookings];
+        for (int i = 0; i < bookings; i++) {
+            cancelled[i] = random.nextDouble() < cancelRate;
+        }
+        return cancelled;
+    }
+
+    // User index for the nth booking on a flight - distinct per flight while n < users
+    int user(int flightIndex, int booking) {
+        long start = Math.floorMod(mix(seed ^ mix(BOOKING_STREAM * 31 + flightIndex)), (long) userCount);
+        return (int) ((start + booking) % userCount);
+    }
+
+    private static int openRank(int[] nextOpen, int rank) {
+        while (nextOpen[rank] != rank) {
+            nextOpen[rank] = nextOpen[nextOpen[rank]];
+            rank = nextOpen[rank];
+        }
+        return rank;
+    }
+
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(mix(seed ^ mix(stream * 0x9E3779B97F4A7C15L + index)));
+    }
+
+    // Index in [0, n) with weight proportional to (index + 1)^-skew, by inverting the
+    // continuous power law - constant time and memory however large n is
+    private static int skewed(SplittableRandom random, int n, double skew) {
+        double u = random.nextDouble();
+        double x;
+        if (Math.abs(skew - 1) < 1e-9) {
+            x = Math.pow(n + 1, u);
+        } else {
+            double exponent = 1 - skew;
+            x = Math.pow(1 + u * (Math.pow(n + 1, exponent) - 1), 1 / exponent);
+        }
+        return Math.min((int) x - 1, n - 1);
+    }
+
+    private static int weighted(SplittableRandom random, double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static long coprimeStride(int n) {
+        long stride = 1_000_003;
+        while (gcd(stride, n) != 1) {
+            stride += 2;
+        }
+        return stride % n == 0 ? 1 : stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    // Stafford's 64-bit finalizer, as used by SplittableRandom
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
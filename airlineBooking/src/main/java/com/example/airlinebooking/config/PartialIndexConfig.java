@@ -0,0 +1,52 @@
+package com.example.airlinebooking.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Indexes JPA cannot declare. Partial indexes are Postgres-only, so other databases
+// (H2 in tests) fall back to the full indexes declared on the entities.
+@Configuration
+public class PartialIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartialIndexConfig.class);
+
+    // Only flights with seats left, in departure order - the sold-out and departed history
+    // that makes up most of the table never enters the index
+    static final String BOOKABLE_FLIGHTS_INDEX =
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flights_bookable " +
+            "ON flights (departure_time, id) WHERE available_seats > 0";
+
+    // A CONCURRENTLY build that failed part way leaves an INVALID index behind, which
+    // IF NOT EXISTS would keep forever while the planner ignores it
+    static final String INVALID_INDEX_CHECK =
+            "SELECT COUNT(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+            "WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace AND NOT i.indisvalid";
+
+    static final String DROP_BOOKABLE_FLIGHTS_INDEX = "DROP INDEX CONCURRENTLY IF EXISTS idx_flights_bookable";
+
+    @Bean
+    CommandLineRunner createPartialIndexes(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(database)) {
+                logger.info("Skipping partial indexes on {}", database);
+                return;
+            }
+            // CONCURRENTLY keeps bookings writable while the index builds; it needs autocommit,
+            // which JdbcTemplate outside a transaction gives us
+            Integer invalid = jdbcTemplate.queryForObject(INVALID_INDEX_CHECK, Integer.class, "idx_flights_bookable");
+            if (invalid != null && invalid > 0) {
+                logger.warn("Partial index idx_flights_bookable is invalid, rebuilding it");
+                jdbcTemplate.execute(DROP_BOOKABLE_FLIGHTS_INDEX);
+            }
+            jdbcTemplate.execute(BOOKABLE_FLIGHTS_INDEX);
+            logger.info("Partial index idx_flights_bookable is in place");
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.airlinebooking.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+// Sends read-only transactions to replicas when datasource.replicas.urls is set. Whichever
+// DataSource the profile builds stays the primary; it is wrapped in a lazy proxy that picks
+// the target when the first statement runs, after the transaction marked the connection
+// read-only. Spring Data finders run read-only by default, so they follow the replicas too.
+// Read-write transactions reach the primary through a hook that remembers the signed-in
+// user once they commit, so that user's next reads stay on the primary.
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReadReplicas readReplicas(@Value("${datasource.replicas.urls}") String urls,
+                                     @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                     @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                     @Value("${datasource.replicas.pool-size:10}") int poolSize,
+                                     @Value("${datasource.replicas.connect-timeout-ms:1000}") long connectTimeoutMillis,
+                                     @Value("${datasource.replicas.read-your-writes-ms:5000}") long readYourWritesMillis,
+                                     @Value("${datasource.replicas.max-lag-ms:10000}") long maxLagMillis,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        List<DataSource> replicas = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> ReadReplicas.pool(url, username, password, poolSize, connectTimeoutMillis))
+                .toList();
+        return new ReadReplicas(replicas, readYourWritesMillis, maxLagMillis, meterRegistry);
+    }
+
+    // Static, so it is in place before the DataSource is created
+    @Bean
+    public static BeanPostProcessor readReplicaRouting(ObjectProvider<ReadReplicas> readReplicas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)) {
+                    return bean;
+                }
+                return routing(primary, readReplicas.getObject());
+            }
+        };
+    }
+
+    static DataSource routing(DataSource primary, ReadReplicas readReplicas) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                readReplicas.writeStarted();
+                return super.getConnection();
+            }
+        });
+        proxy.setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return readReplicas.getConnection(primary);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        });
+        return proxy;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.airlinebooking.config;
+
+import com.example.airlinebooking.model.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Replica pools behind read-only transactions - see ReadReplicaConfig. Reads go round robin
+// to replicas that passed their last health check; a replica that refuses a connection is
+// taken out until the next check, and with none left reads fall back to the primary. Users
+// who just wrote read from the primary for a while, so they see their own booking at once.
+public class ReadReplicas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicas.class);
+
+    // Zero while the replica has replayed everything it received, so an idle primary
+    // does not look like lag; null on a server that is not a replica
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    record Replica(String name, DataSource dataSource, AtomicBoolean healthy) {
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Cache<Long, Boolean> recentWriters;
+    private final long maxLagMillis;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile boolean metricsRegistered;
+
+    ReadReplicas(List<DataSource> replicaDataSources, long readYourWritesMillis, long maxLagMillis,
+                 ObjectProvider<MeterRegistry> meterRegistry) {
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            replicas.add(new Replica("replica-" + (i + 1), replicaDataSources.get(i), new AtomicBoolean(true)));
+        }
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMillis))
+                .maximumSize(100_000)
+                .build();
+        this.maxLagMillis = maxLagMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Hikari pool for one replica. Accepts a JDBC URL, or a postgres:// URI carrying its own
+    // credentials as Heroku provides for followers.
+    static DataSource pool(String url, String username, String password, int poolSize, long connectTimeoutMillis) {
+        HikariDataSource dataSource = new HikariDataSource();
+        if (url.startsWith("postgres://") || url.startsWith("postgresql://")) {
+            URI uri = URI.create(url);
+            String[] credentials = uri.getUserInfo().split(":", 2);
+            dataSource.setJdbcUrl("jdbc:postgresql://" + uri.getHost() + ':' + uri.getPort() + uri.getPath());
+            dataSource.setUsername(credentials[0]);
+            dataSource.setPassword(credentials[1]);
+        } else {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+        }
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(true);
+        // Fail fast, so a dead replica costs a read this long before it falls back
+        dataSource.setConnectionTimeout(connectTimeoutMillis);
+        // Built before the replica is known to be up
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    Connection getConnection(DataSource primary) throws SQLException {
+        if (readsOwnWrites()) {
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy().get()) {
+                continue;
+            }
+            try {
+                return replica.dataSource().getConnection();
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // Called as a read-write transaction takes its primary connection. The user is recorded
+    // on commit, which is before the controller writes the response reporting the change.
+    void writeStarted() {
+        Long userId = currentUserId();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(userId);
+            }
+        });
+    }
+
+    void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    boolean readsOwnWrites() {
+        Long userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        registerMetrics();
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                Long lag = replicationLag(connection, statement);
+                if (lag != null && lag > maxLagMillis) {
+                    markDown(replica, "replication lag " + lag + " ms");
+                } else if (replica.healthy().compareAndSet(false, true)) {
+                    logger.info("Read replica {} is back", replica.name());
+                }
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+
+    // Null when the database cannot tell, which counts as up to date
+    private static Long replicationLag(Connection connection, Statement statement) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            statement.execute("SELECT 1");
+            return null;
+        }
+        try (ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            result.next();
+            long lag = result.getLong(1);
+            return result.wasNull() ? null : lag;
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.getId() : null;
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy().compareAndSet(true, false)) {
+            logger.warn("Read replica {} is down, reading from the others: {}", replica.name(), reason);
+        }
+    }
+
+    private void registerMetrics() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (metricsRegistered || registry == null) {
+            return;
+        }
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.healthy", replica.healthy(), healthy -> healthy.get() ? 1 : 0)
+                    .description("Whether reads are routed to the replica")
+                    .tag("replica", replica.name())
+                    .register(registry);
+        }
+        metricsRegistered = true;
+    }
+}
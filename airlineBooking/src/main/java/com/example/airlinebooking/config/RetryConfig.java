@@ -0,0 +1,69 @@
+package com.example.airlinebooking.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+
+@Configuration
+@EnableRetry
+public class RetryConfig {
+
+    @Bean
+    public RetryListener optimisticRetryListener(MeterRegistry meterRegistry) {
+        return new OptimisticRetryListener(meterRegistry);
+    }
+
+    // Counts optimistic-lock and lock-wait conflicts, retries and exhausted retries per service operation
+    static class OptimisticRetryListener implements RetryListener {
+
+        private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryListener.class);
+
+        private final MeterRegistry meterRegistry;
+
+        OptimisticRetryListener(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+            if (throwable instanceof ConcurrencyFailureException) {
+                String operation = operation(callback);
+                logger.debug("Concurrency conflict in {} (attempt {})", operation, context.getRetryCount());
+                counter("booking.concurrency.conflicts", operation).increment();
+            }
+        }
+
+        @Override
+        public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+            String operation = operation(callback);
+            int retries = context.getRetryCount() - (throwable != null ? 1 : 0);
+            if (retries > 0) {
+                counter("booking.concurrency.retries", operation).increment(retries);
+            }
+            if (throwable instanceof ConcurrencyFailureException) {
+                logger.warn("Giving up on {} after {} conflicting attempts", operation, context.getRetryCount());
+                counter("booking.concurrency.exhausted", operation).increment();
+            }
+        }
+
+        private Counter counter(String name, String operation) {
+            return Counter.builder(name).tag("operation", operation).register(meterRegistry);
+        }
+
+        private String operation(RetryCallback<?, ?> callback) {
+            if (callback instanceof MethodInvocationRetryCallback<?, ?> invocationCallback) {
+                return invocationCallback.getInvocation().getMethod().getName();
+            }
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.airlinebooking.controller;
+
+import com.example.airlinebooking.dto.ArchivedRouteResponse;
+import com.example.airlinebooking.dto.BookingHistoryRequest;
+import com.example.airlinebooking.dto.BookingHistoryResponse;
+import com.example.airlinebooking.model.ArchivedFlight;
+import com.example.airlinebooking.model.AuthenticatedUser;
+import com.example.airlinebooking.service.ArchiveService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+// Departed flights and their bookings once FlightArchiver has moved them out of the live tables
+@RestController
+@RequestMapping("/api/archive")
+public class ArchiveController {
+    private final ArchiveService archiveService;
+
+    public ArchiveController(ArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping("/flights/{id}")
+    public ResponseEntity<ArchivedFlight> getFlight(@PathVariable Long id) {
+        return ResponseEntity.ok(archiveService.getFlight(id));
+    }
+
+    // One route's archived flights, newest first - pass nextCursor back as cursor for more
+    @GetMapping("/flights")
+    public ResponseEntity<ArchivedRouteResponse> getRoute(@RequestParam String origin,
+                                                          @RequestParam String destination,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(archiveService.getRoute(origin, destination, cursor, limit));
+    }
+
+    // The caller's archived bookings, paged like /api/bookings/history
+    @GetMapping("/bookings/history")
+    public ResponseEntity<BookingHistoryResponse> getBookingHistory(@Valid BookingHistoryRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(archiveService.getBookingHistory(currentUser.getId(), request));
+    }
+}
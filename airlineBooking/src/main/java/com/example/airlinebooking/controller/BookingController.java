@@ -1,70 +1,109 @@
 package com.example.airlinebooking.controller;
 
 import com.example.airlinebooking.model.Booking;
-import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.model.AuthenticatedUser;
+import com.example.airlinebooking.dto.BookingHistoryRequest;
+import com.example.airlinebooking.dto.BookingHistoryResponse;
 import com.example.airlinebooking.dto.BookingRequest;
 import com.example.airlinebooking.dto.BookingUpdateRequest;
+import com.example.airlinebooking.dto.BookingView;
 import com.example.airlinebooking.dto.BookingStatusUpdateRequest;
+import com.example.airlinebooking.dto.GroupBookingRequest;
 import com.example.airlinebooking.service.BookingService;
-import com.example.airlinebooking.service.UserService;
+import com.example.airlinebooking.service.IdempotencyService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+    // Clients retrying a write after a timeout send the same key to get the original response
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BookingService bookingService;
-    private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
-    public BookingController(BookingService bookingService, UserService userService) {
+    public BookingController(BookingService bookingService, IdempotencyService idempotencyService) {
         this.bookingService = bookingService;
-        this.userService = userService;
+        this.idempotencyService = idempotencyService;
     }
 
     @GetMapping("/my")
-    public ResponseEntity<List<Booking>> getMyBookings() {
-        User currentUser = getCurrentUser();
-        List<Booking> bookings = bookingService.getUserBookings(currentUser.getId());
+    public ResponseEntity<List<BookingView>> getMyBookings() {
+        AuthenticatedUser currentUser = getCurrentUser();
+        List<BookingView> bookings = bookingService.getUserBookings(currentUser.getId());
         return ResponseEntity.ok(bookings);
     }
 
+    // Keyset-paged history - pass nextCursor back as cursor for the following page
+    @GetMapping("/history")
+    public ResponseEntity<BookingHistoryResponse> getBookingHistory(@Valid BookingHistoryRequest request) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        return ResponseEntity.ok(bookingService.getBookingHistory(currentUser.getId(), request));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Booking> getBooking(@PathVariable Long id) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         Booking booking = bookingService.getBookingById(id, currentUser.getId());
         return ResponseEntity.ok(booking);
     }
 
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody BookingRequest request) {
-        User currentUser = getCurrentUser();
-        Booking booking = bookingService.createBooking(currentUser.getId(), request.getFlightId());
+    public ResponseEntity<Booking> createBooking(@Valid @RequestBody BookingRequest request,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        Booking booking = idempotencyService.execute(idempotencyKey, currentUser.getId(),
+                "create:" + request.getFlightId() + ":" + request.getSeatNumber(),
+                () -> bookingService.createBooking(currentUser.getId(), request.getFlightId(), request.getSeatNumber()));
         return ResponseEntity.ok(booking);
     }
 
+    @PostMapping("/group")
+    public ResponseEntity<List<Booking>> createGroupBooking(@Valid @RequestBody GroupBookingRequest request,
+                                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        // Each flight once - the per-flight passenger limit is checked on each leg, not on a sum
+        Map<Long, Integer> passengersByFlight = new HashMap<>();
+        for (GroupBookingRequest.Leg leg : request.getFlights()) {
+            if (passengersByFlight.putIfAbsent(leg.getFlightId(), leg.getPassengers()) != null) {
+                throw new IllegalArgumentException("Flight " + leg.getFlightId() + " is listed more than once");
+            }
+        }
+        List<Booking> bookings = idempotencyService.execute(idempotencyKey, currentUser.getId(),
+                "group:" + new TreeMap<>(passengersByFlight),
+                () -> bookingService.createGroupBooking(currentUser.getId(), passengersByFlight));
+        return ResponseEntity.ok(bookings);
+    }
+
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<Booking> cancelBooking(@PathVariable Long id) {
-        User currentUser = getCurrentUser();
-        Booking cancelledBooking = bookingService.cancelBooking(id, currentUser.getId());
+    public ResponseEntity<Booking> cancelBooking(@PathVariable Long id,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        Booking cancelledBooking = idempotencyService.execute(idempotencyKey, currentUser.getId(), "cancel:" + id,
+                () -> bookingService.cancelBooking(id, currentUser.getId()));
         return ResponseEntity.ok(cancelledBooking);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Booking> updateBooking(@PathVariable Long id, @Valid @RequestBody BookingUpdateRequest request) {
-        User currentUser = getCurrentUser();
-        Booking updatedBooking = bookingService.updateBooking(id, currentUser.getId(), request.getFlightId());
+        AuthenticatedUser currentUser = getCurrentUser();
+        Booking updatedBooking = bookingService.updateBooking(id, currentUser.getId(), request.getFlightId(), request.getSeatNumber());
         return ResponseEntity.ok(updatedBooking);
     }
 
     @PutMapping("/{id}/status")
     public ResponseEntity<Booking> updateBookingStatus(@PathVariable Long id, @RequestBody BookingStatusUpdateRequest request) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         Booking updatedBooking = bookingService.updateBookingStatus(id, currentUser.getId(), request.getStatus());
         return ResponseEntity.ok(updatedBooking);
     }
@@ -77,10 +116,9 @@ public class BookingController {
     }
 
     // Helper method to get current authenticated user
-    private User getCurrentUser() {
+    private AuthenticatedUser getCurrentUser() {
+        // Resolved by JwtRequestFilter - no lookup needed here
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Authentication failed - user not found"));
+        return (AuthenticatedUser) authentication.getPrincipal();
     }
 }
\ No newline at end of file
@@ -1,38 +1,116 @@
 package com.example.airlinebooking.controller;
 
+import com.example.airlinebooking.dto.FlightImportResult;
+import com.example.airlinebooking.dto.FlightSearchRequest;
+import com.example.airlinebooking.dto.FlightSearchResponse;
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.dto.SeatMapResponse;
 import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.service.AvailabilityStream;
+import com.example.airlinebooking.service.CatalogVersion;
 import com.example.airlinebooking.service.FlightService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/flights")
 public class FlightController {
     private final FlightService flightService;
+    private final CatalogVersion catalogVersion;
+    private final AvailabilityStream availabilityStream;
 
-    public FlightController(FlightService flightService) {
+    public FlightController(FlightService flightService, CatalogVersion catalogVersion,
+                            AvailabilityStream availabilityStream) {
         this.flightService = flightService;
+        this.catalogVersion = catalogVersion;
+        this.availabilityStream = availabilityStream;
     }
 
+    // Read endpoints are tagged with the catalog version. A poll with a matching
+    // If-None-Match gets an empty 304 before any flight is loaded or serialized.
+
     @GetMapping
-    public ResponseEntity<List<Flight>> getAllFlights() {
-        List<Flight> flights = flightService.getAllFlights();
-        return ResponseEntity.ok(flights);
+    public ResponseEntity<List<FlightSummary>> getAllFlights(WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<FlightSummary> flights = flightService.getAllFlights();
+        return tagged(etag, flights);
+    }
+
+    // Whole catalog as newline-delimited JSON, streamed as it is read rather than built in memory
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportFlights() {
+        StreamingResponseBody body = flightService::exportFlights;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<Flight>> getAvailableFlights() {
-        List<Flight> flights = flightService.getAvailableFlights();
-        return ResponseEntity.ok(flights);
+    public ResponseEntity<List<FlightSummary>> getAvailableFlights(WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<FlightSummary> flights = flightService.getAvailableFlights();
+        return tagged(etag, flights);
+    }
+
+    // Filtered, keyset-paged search - pass nextCursor back as cursor for the following page
+    @GetMapping("/search")
+    public ResponseEntity<FlightSearchResponse> searchFlights(@Valid FlightSearchRequest request, WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        FlightSearchResponse page = flightService.searchFlights(request);
+        return tagged(etag, page);
+    }
+
+    // Live seat counts as server-sent events, at most one per flight and interval. Subscribe to
+    // flightIds, or to a route with origin and/or destination; no filter streams every flight.
+    // The endpoint is public, so open streams are also capped per client address.
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(defaultValue = "") Set<Long> flightIds,
+                                         @RequestParam(required = false) String origin,
+                                         @RequestParam(required = false) String destination,
+                                         HttpServletRequest request) {
+        return availabilityStream.subscribe(flightIds, origin, destination, request.getRemoteAddr());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Flight> getFlightById(@PathVariable Long id) {
-        Flight flight = flightService.getFlightById(id);
-        return ResponseEntity.ok(flight);
+    public ResponseEntity<FlightSummary> getFlightById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        FlightSummary flight = flightService.getFlightById(id);
+        return tagged(etag, flight);
+    }
+
+    @GetMapping("/{id}/seats")
+    public ResponseEntity<SeatMapResponse> getSeatMap(@PathVariable Long id, WebRequest webRequest) {
+        String etag = catalogVersion.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        SeatMapResponse seatMap = flightService.getSeatMap(id);
+        return tagged(etag, seatMap);
     }
 
     @PostMapping
@@ -41,9 +119,27 @@ public class FlightController {
         return ResponseEntity.ok(createdFlight);
     }
 
+    // Schedule feed as CSV (header row naming the columns) or newline-delimited JSON, read as
+    // it arrives. Invalid rows are skipped and listed in the result.
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<FlightImportResult> importFlights(InputStream body,
+                                                            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            @RequestParam(defaultValue = "false") boolean upsert) throws IOException {
+        FlightImportResult result = flightService.importFlights(body, MediaType.parseMediaType(contentType), upsert);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Flight> updateFlight(@PathVariable Long id, @Valid @RequestBody Flight flight) {
         Flight updatedFlight = flightService.updateFlight(id, flight);
         return ResponseEntity.ok(updatedFlight);
     }
+
+    // no-cache lets clients keep the body but makes them revalidate on every poll
+    private <T> ResponseEntity<T> tagged(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
 } 
\ No newline at end of file
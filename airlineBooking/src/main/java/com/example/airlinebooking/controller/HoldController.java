@@ -0,0 +1,59 @@
+package com.example.airlinebooking.controller;
+
+import com.example.airlinebooking.dto.HoldRequest;
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.SeatHold;
+import com.example.airlinebooking.model.AuthenticatedUser;
+import com.example.airlinebooking.service.SeatHoldService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    private final SeatHoldService seatHoldService;
+
+    public HoldController(SeatHoldService seatHoldService) {
+        this.seatHoldService = seatHoldService;
+    }
+
+    @PostMapping
+    public ResponseEntity<SeatHold> createHold(@Valid @RequestBody HoldRequest request) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        SeatHold hold = seatHoldService.createHold(currentUser.getId(), request.getFlightId(), request.getSeats());
+        return ResponseEntity.ok(hold);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SeatHold> getHold(@PathVariable String id) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        SeatHold hold = seatHoldService.getHold(id, currentUser.getId());
+        return ResponseEntity.ok(hold);
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<List<Booking>> confirmHold(@PathVariable String id) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        List<Booking> bookings = seatHoldService.confirmHold(id, currentUser.getId());
+        return ResponseEntity.ok(bookings);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String id) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        seatHoldService.releaseHold(id, currentUser.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Helper method to get current authenticated user
+    private AuthenticatedUser getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (AuthenticatedUser) authentication.getPrincipal();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.airlinebooking.controller;
+
+import com.example.airlinebooking.dto.RouteStats;
+import com.example.airlinebooking.model.FlightBookingStats;
+import com.example.airlinebooking.service.BookingStatsService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Booking counters for operations dashboards. Served from flight_booking_stats and cached
+// for a second, so polling every second never touches the bookings table.
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+    private final BookingStatsService bookingStatsService;
+
+    public StatsController(BookingStatsService bookingStatsService) {
+        this.bookingStatsService = bookingStatsService;
+    }
+
+    @GetMapping("/flights/{id}")
+    public ResponseEntity<FlightBookingStats> getFlight(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(bookingStatsService.getFlight(id));
+    }
+
+    // Upcoming flights with the highest load factor first
+    @GetMapping("/flights/fullest")
+    public ResponseEntity<List<FlightBookingStats>> getFullest(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(bookingStatsService.getFullest(limit));
+    }
+
+    // Upcoming flights summed per route, optionally for one origin and/or destination
+    @GetMapping("/routes")
+    public ResponseEntity<List<RouteStats>> getRoutes(@RequestParam(required = false) String origin,
+                                                      @RequestParam(required = false) String destination) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(bookingStatsService.getRoutes(origin, destination));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.airlinebooking.controller;
 
+import com.example.airlinebooking.model.AuthenticatedUser;
 import com.example.airlinebooking.model.User;
 import com.example.airlinebooking.dto.UserRegistrationRequest;
 import com.example.airlinebooking.dto.UserLoginRequest;
@@ -51,7 +52,7 @@ public class UserController {
         User user = userService.authenticateUser(request.getEmail(), request.getPassword());
         
         // Generate JWT token
-        String token = jwtUtil.generateToken(user.getEmail());
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId());
         
         Map<String, Object> response = Map.of(
             "message", "Login successful",
@@ -68,7 +69,7 @@ public class UserController {
 
     @PutMapping("/profile")
     public ResponseEntity<?> updateUserProfile(@Valid @RequestBody UserUpdateRequest request) {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         
         User updatedUser = userService.updateUser(currentUser.getId(), request.getEmail(), request.getPassword());
         
@@ -86,7 +87,7 @@ public class UserController {
 
     @DeleteMapping("/profile")
     public ResponseEntity<?> deleteUserProfile() {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         
         userService.deleteUser(currentUser.getId());
         
@@ -98,10 +99,8 @@ public class UserController {
     }
 
     // Helper method to get current authenticated user
-    private User getCurrentUser() {
+    private AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userService.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Authentication failed - user not found"));
+        return (AuthenticatedUser) authentication.getPrincipal();
     }
 }
\ No newline at end of file
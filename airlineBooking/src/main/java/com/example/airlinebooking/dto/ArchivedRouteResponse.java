@@ -0,0 +1,15 @@
+package com.example.airlinebooking.dto;
+
+import com.example.airlinebooking.model.ArchivedFlight;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ArchivedRouteResponse {
+    private List<ArchivedFlight> flights;
+    // Null on the last page
+    private String nextCursor;
+}
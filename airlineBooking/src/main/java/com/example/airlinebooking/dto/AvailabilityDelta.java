@@ -0,0 +1,16 @@
+package com.example.airlinebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One event of the availability stream. Version increases with every delta the server sends,
+// across all flights, so a client can drop anything older than what it already applied.
+@Data
+@AllArgsConstructor
+public class AvailabilityDelta {
+    private Long flightId;
+    private String origin;
+    private String destination;
+    private int availableSeats;
+    private long version;
+}
@@ -0,0 +1,21 @@
+package com.example.airlinebooking.dto;
+
+import com.example.airlinebooking.model.BookingStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+// Query parameters of GET /api/bookings/history
+@Data
+public class BookingHistoryRequest {
+
+    // Optional - every status when absent
+    private BookingStatus status;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 100, message = "Limit cannot exceed 100")
+    private int limit = 20;
+
+    // nextCursor of the previous page, absent for the first page
+    private String cursor;
+}
@@ -1,11 +1,16 @@
 package com.example.airlinebooking.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 public class BookingRequest {
     @NotNull(message = "Flight ID is required")
     private Long flightId;
 
+    // Optional - the next free seat is assigned when omitted
+    @Min(value = 1, message = "Seat number must be at least 1")
+    private Integer seatNumber;
+
     // Getters and setters
     public Long getFlightId() {
         return flightId;
@@ -14,4 +19,12 @@ public class BookingRequest {
     public void setFlightId(Long flightId) {
         this.flightId = flightId;
     }
+
+    public Integer getSeatNumber() {
+        return seatNumber;
+    }
+
+    public void setSeatNumber(Integer seatNumber) {
+        this.seatNumber = seatNumber;
+    }
 } 
\ No newline at end of file
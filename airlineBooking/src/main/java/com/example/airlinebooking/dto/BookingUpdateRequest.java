@@ -1,5 +1,6 @@
 package com.example.airlinebooking.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -8,4 +9,8 @@ public class BookingUpdateRequest {
     
     @NotNull(message = "Flight ID is required")
     private Long flightId;
+
+    // Optional - the next free seat on the new flight is assigned when omitted
+    @Min(value = 1, message = "Seat number must be at least 1")
+    private Integer seatNumber;
 } 
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.airlinebooking.dto;
+
+import com.example.airlinebooking.model.BookingStatus;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+// Read model for a user's booking list - only what the dashboard shows, built straight from
+// one joined query. Keeps the nested flight shape of the entity JSON the frontend already reads.
+@Value
+public class BookingView {
+    Long id;
+    BookingStatus status;
+    Integer seatNumber;
+    FlightInfo flight;
+
+    public BookingView(Long id, BookingStatus status, Integer seatNumber, Long flightId, String origin,
+                       String destination, LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        this.id = id;
+        this.status = status;
+        this.seatNumber = seatNumber;
+        this.flight = new FlightInfo(flightId, origin, destination, departureTime, arrivalTime);
+    }
+
+    @Value
+    public static class FlightInfo {
+        Long id;
+        String origin;
+        String destination;
+        LocalDateTime departureTime;
+        LocalDateTime arrivalTime;
+    }
+}
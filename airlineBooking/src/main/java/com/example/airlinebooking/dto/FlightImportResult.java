@@ -0,0 +1,47 @@
+package com.example.airlinebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FlightImportResult {
+    // Only the first rejections are listed; rejected always has the full count
+    public static final int MAX_ERRORS = 100;
+
+    private int inserted;
+    private int updated;
+    private int rejected;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void reject(long line, String message) {
+        reject(line, message, 1);
+    }
+
+    // One error entry standing for a run of rows, e.g. a chunk that failed to commit
+    public void reject(long line, String message, int rows) {
+        rejected += rows;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public void add(FlightImportResult other) {
+        inserted += other.inserted;
+        updated += other.updated;
+        rejected += other.rejected;
+        other.errors.stream()
+                .limit(MAX_ERRORS - errors.size())
+                .forEach(errors::add);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based line in the uploaded file
+        private long line;
+        private String message;
+    }
+}
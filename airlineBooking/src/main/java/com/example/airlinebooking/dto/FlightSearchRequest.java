@@ -0,0 +1,34 @@
+package com.example.airlinebooking.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Query parameters of GET /api/flights/search - every filter is optional
+@Data
+public class FlightSearchRequest {
+
+    private String origin;
+
+    private String destination;
+
+    // Inclusive departure dates
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate departureFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate departureTo;
+
+    @Min(value = 1, message = "Minimum seats must be at least 1")
+    private Integer minSeats;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 100, message = "Limit cannot exceed 100")
+    private int limit = 20;
+
+    // nextCursor of the previous page, absent for the first page
+    private String cursor;
+}
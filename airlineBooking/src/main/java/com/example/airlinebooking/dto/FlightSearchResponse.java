@@ -0,0 +1,14 @@
+package com.example.airlinebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class FlightSearchResponse {
+    private List<FlightSummary> flights;
+    // Null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package com.example.airlinebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.With;
+
+import java.time.LocalDateTime;
+
+// Flight as listed to clients - the JSON shape of Flight without loading its seat map.
+// Cached instances are shared, so live seat counts are applied to a copy via withAvailableSeats.
+@Data
+@AllArgsConstructor
+public class FlightSummary {
+    private Long id;
+    private String origin;
+    private String destination;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private int capacity;
+    @With
+    private int availableSeats;
+    private Long version;
+}
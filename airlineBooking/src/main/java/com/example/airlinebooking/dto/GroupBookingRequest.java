@@ -0,0 +1,32 @@
+package com.example.airlinebooking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GroupBookingRequest {
+
+    // Every leg is booked or none is
+    @Valid
+    @NotEmpty(message = "At least one flight is required")
+    @Size(max = 10, message = "A group booking can cover at most 10 flights")
+    private List<Leg> flights;
+
+    @Data
+    public static class Leg {
+
+        @NotNull(message = "Flight ID is required")
+        private Long flightId;
+
+        @Min(value = 1, message = "At least one passenger is required")
+        @Max(value = 9, message = "At most 9 passengers per flight")
+        private int passengers = 1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.airlinebooking.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class HoldRequest {
+
+    @NotNull(message = "Flight ID is required")
+    private Long flightId;
+
+    @Min(value = 1, message = "At least one seat must be held")
+    private int seats = 1;
+}
@@ -0,0 +1,28 @@
+package com.example.airlinebooking.dto;
+
+import lombok.Value;
+
+// Booking counts summed over every flight on a route
+@Value
+public class RouteStats {
+    String origin;
+    String destination;
+    long flights;
+    long capacity;
+    long confirmed;
+    long delayed;
+    long cancelled;
+    double loadFactor;
+
+    public RouteStats(String origin, String destination, long flights, long capacity,
+                      long confirmed, long delayed, long cancelled) {
+        this.origin = origin;
+        this.destination = destination;
+        this.flights = flights;
+        this.capacity = capacity;
+        this.confirmed = confirmed;
+        this.delayed = delayed;
+        this.cancelled = cancelled;
+        this.loadFactor = capacity > 0 ? (double) (confirmed + delayed) / capacity : 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.airlinebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SeatMapResponse {
+    private Long flightId;
+    private int capacity;
+    private int availableSeats;
+    // Seat numbers run from 1 to capacity
+    private List<Integer> takenSeats;
+}
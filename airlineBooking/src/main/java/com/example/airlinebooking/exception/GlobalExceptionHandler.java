@@ -2,6 +2,8 @@ package com.example.airlinebooking.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -89,6 +91,68 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleHoldNotFound(HoldNotFoundException ex) {
+        logger.warn("Seat hold not found: {}", ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Hold not found");
+        error.put("message", "This seat hold has expired or no longer exists. Please select your seats again.");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKey(IdempotencyKeyException ex) {
+        logger.warn("Idempotency key rejected: {}", ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid idempotency key");
+        error.put("message", "This Idempotency-Key cannot be used for this request. Please generate a new key for each new operation.");
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
+    @ExceptionHandler(IdempotencyInProgressException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyInProgress(IdempotencyInProgressException ex) {
+        logger.warn("Idempotent request still running: {}", ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Request in progress");
+        error.put("message", "The original request with this Idempotency-Key is still being processed. Please retry shortly.");
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    @ExceptionHandler(HashingCapacityException.class)
+    public ResponseEntity<Map<String, String>> handleHashingCapacity(HashingCapacityException ex) {
+        logger.warn("Password hashing rejected: {}", ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Service busy");
+        error.put("message", "Too many sign-in requests right now. Please try again in a moment.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    @ExceptionHandler(StreamCapacityException.class)
+    public ResponseEntity<Map<String, String>> handleStreamCapacity(StreamCapacityException ex) {
+        logger.warn("Availability stream rejected: {}", ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Service busy");
+        error.put("message", "Too many availability subscribers right now. Please try again later.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
+    @ExceptionHandler(StreamClientLimitException.class)
+    public ResponseEntity<Map<String, String>> handleStreamClientLimit(StreamClientLimitException ex) {
+        logger.warn("Availability stream rejected: {}", ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Too many streams");
+        error.put("message", "Too many availability streams open from this client. Close one and try again.");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
     @ExceptionHandler(UnauthorizedAccessException.class)
     public ResponseEntity<Map<String, String>> handleUnauthorizedAccess(UnauthorizedAccessException ex) {
         logger.warn("Unauthorized access attempt: {}", ex.getMessage());
@@ -98,6 +162,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
     }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        logger.warn("Concurrent modification not resolved by retries: {}", ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Concurrent update");
+        error.put("message", "This item was changed by another request. Please refresh and try again.");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception ex) {
         logger.error("Unexpected error occurred", ex);
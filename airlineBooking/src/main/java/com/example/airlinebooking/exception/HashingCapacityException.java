@@ -0,0 +1,7 @@
+package com.example.airlinebooking.exception;
+
+public class HashingCapacityException extends RuntimeException {
+    public HashingCapacityException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.airlinebooking.exception;
+
+// A hold whose seats are no longer taken for it, so it cannot be confirmed or given back
+public class HeldSeatsLostException extends HoldNotFoundException {
+    public HeldSeatsLostException(String message) {
+        super(message);
+    }
+}
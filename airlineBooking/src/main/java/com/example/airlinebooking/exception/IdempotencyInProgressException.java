@@ -0,0 +1,7 @@
+package com.example.airlinebooking.exception;
+
+public class IdempotencyInProgressException extends RuntimeException {
+    public IdempotencyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.airlinebooking.exception;
+
+public class StreamCapacityException extends RuntimeException {
+    public StreamCapacityException(String message) {
+        super(message);
+    }
+}
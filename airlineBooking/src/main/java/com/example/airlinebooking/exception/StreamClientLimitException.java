@@ -0,0 +1,7 @@
+package com.example.airlinebooking.exception;
+
+public class StreamClientLimitException extends RuntimeException {
+    public StreamClientLimitException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.airlinebooking.filter;
 
-import com.example.airlinebooking.util.JwtUtil;
+import com.example.airlinebooking.model.AuthenticatedUser;
+import com.example.airlinebooking.service.PrincipalCache;
+import com.example.airlinebooking.util.JwtVerifier;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -18,10 +20,12 @@ import java.util.Collections;
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final JwtVerifier jwtVerifier;
+    private final PrincipalCache principalCache;
 
-    public JwtRequestFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    public JwtRequestFilter(JwtVerifier jwtVerifier, PrincipalCache principalCache) {
+        this.jwtVerifier = jwtVerifier;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -32,22 +36,16 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                // Invalid token, ignore
-            }
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, username)) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Invalid tokens are ignored - the request just stays unauthenticated
+            JwtVerifier.VerifiedToken token = jwtVerifier.verify(authorizationHeader.substring(7));
+            AuthenticatedUser principal = token != null
+                    ? principalCache.resolve(token.getUserId(), token.getSubject())
+                    : null;
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList());
+                        new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
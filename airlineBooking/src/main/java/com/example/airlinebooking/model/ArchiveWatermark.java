@@ -0,0 +1,32 @@
+package com.example.airlinebooking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Departure time up to which flights have been archived. The archiver locks this row for
+// each batch, so only one instance archives at a time, and starts its next scan from here.
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "archive_watermarks")
+public class ArchiveWatermark {
+
+    @Id
+    private String name;
+
+    @Column(name = "archived_through")
+    private LocalDateTime archivedThrough;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ArchiveWatermark(String name) {
+        this.name = name;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
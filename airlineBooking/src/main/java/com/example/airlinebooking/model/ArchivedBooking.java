@@ -0,0 +1,39 @@
+package com.example.airlinebooking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// A booking on an archived flight. Plain id columns rather than associations, so the
+// archive never holds foreign keys into the hot tables.
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "bookings_archive", indexes = {
+        @Index(name = "idx_bookings_archive_user", columnList = "user_id, id"),
+        @Index(name = "idx_bookings_archive_flight", columnList = "flight_id")
+})
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "flight_id", nullable = false)
+    private Long flightId;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    @Column(name = "seat_number")
+    private Integer seatNumber;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,38 @@
+package com.example.airlinebooking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// A departed flight moved out of flights by FlightArchiver. Rows are copied with set-based
+// SQL and never changed afterwards; the seat map is dropped, bookings keep their seat number.
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "flights_archive", indexes = {
+        @Index(name = "idx_flights_archive_route_departure", columnList = "origin, destination, departureTime, id")
+})
+public class ArchivedFlight {
+
+    @Id
+    private Long id;
+
+    private String origin;
+
+    private String destination;
+
+    private LocalDateTime departureTime;
+
+    private LocalDateTime arrivalTime;
+
+    private int capacity;
+
+    private int availableSeats;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
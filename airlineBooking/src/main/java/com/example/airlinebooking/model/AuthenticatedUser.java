@@ -0,0 +1,20 @@
+package com.example.airlinebooking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.Principal;
+
+// Caller of an authenticated request, resolved from the JWT without touching the users
+// table. getName() stays the email so Authentication.getName() means what it always did.
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+    private final Long id;
+    private final String email;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
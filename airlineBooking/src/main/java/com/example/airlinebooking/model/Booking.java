@@ -3,6 +3,7 @@ package com.example.airlinebooking.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.ManyToOne;
@@ -11,11 +12,18 @@ import jakarta.persistence.JoinColumn;
 @Setter
 @Getter
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Booking history pages seek on these, newest first
+        @Index(name = "idx_bookings_user", columnList = "user_id, id"),
+        @Index(name = "idx_bookings_user_status", columnList = "user_id, status, id"),
+        // Per-flight lookups, and the foreign key check when a flight row is deleted
+        @Index(name = "idx_bookings_flight", columnList = "flight_id, status")
+})
 public class Booking {
     // Getters and setters
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -27,6 +35,15 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    // Seat on the flight, numbered from 1 - kept on cancelled bookings for history
+    @Column(name = "seat_number")
+    private Integer seatNumber;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
     
 
 }
\ No newline at end of file
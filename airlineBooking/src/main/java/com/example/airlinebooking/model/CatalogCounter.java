@@ -0,0 +1,32 @@
+package com.example.airlinebooking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Change counter of the flight catalog shared by every instance, see CatalogVersion. Each
+// instance adds its changes in one update per refresh, so bookings never wait on this row.
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "catalog_counters")
+public class CatalogCounter {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public CatalogCounter(String name) {
+        this.name = name;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.airlinebooking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Max;
 
 
 import java.time.LocalDateTime;
@@ -13,11 +16,20 @@ import java.time.LocalDateTime;
 @Setter
 @Getter
 @Entity
-@Table(name = "flights")
+// Search is keyset-paged on (departure_time, id), with or without a route filter
+@Table(name = "flights", indexes = {
+        @Index(name = "idx_flights_route_departure", columnList = "origin, destination, departureTime, id"),
+        @Index(name = "idx_flights_departure", columnList = "departureTime, id")
+})
 public class Flight {
+    // Room for 8192 seats - far beyond any aircraft in service
+    public static final int SEAT_MAP_BYTES = 1024;
+
     // Getters and setters
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence - one round trip hands out 50 ids, so inserts can be batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flights_seq")
+    @SequenceGenerator(name = "flights_seq", sequenceName = "flights_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -33,11 +45,23 @@ public class Flight {
     private LocalDateTime arrivalTime;
 
     @Min(1)
+    @Max(SeatMap.MAX_CAPACITY)
     private int capacity;
 
     @Min(0)
     private int availableSeats;
 
+    // One bit per seat, see SeatMap - never exposed or accepted over the API
+    @JsonIgnore
+    @Column(name = "seat_map", length = SEAT_MAP_BYTES)
+    private byte[] seatMap;
+
+    // Optimistic lock - bumped by every entity update
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Custom setter to ensure availableSeats doesn't exceed capacity
     public void setAvailableSeats(int availableSeats) {
         if (availableSeats > this.capacity) {
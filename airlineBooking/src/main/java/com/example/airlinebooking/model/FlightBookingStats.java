@@ -0,0 +1,51 @@
+package com.example.airlinebooking.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Booking counts of one flight, kept current by BookingStatsService in the same transaction
+// as every booking change, so dashboards read them without counting bookings. The route and
+// capacity are copied from the flight, and the load factor stored, so a ranking is one index scan.
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "flight_booking_stats", indexes = {
+        @Index(name = "idx_flight_booking_stats_load", columnList = "load_factor")
+})
+public class FlightBookingStats {
+
+    @Id
+    @Column(name = "flight_id")
+    private Long flightId;
+
+    private String origin;
+
+    private String destination;
+
+    private LocalDateTime departureTime;
+
+    private int capacity;
+
+    @Column(name = "confirmed_count", nullable = false)
+    private long confirmed;
+
+    @Column(name = "delayed_count", nullable = false)
+    private long delayed;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelled;
+
+    // Share of the capacity held by confirmed and delayed bookings
+    @Column(name = "load_factor", nullable = false)
+    private double loadFactor;
+
+    @JsonIgnore
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,60 @@
+package com.example.airlinebooking.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// A change recorded in the same transaction as the booking, flight or hold write it describes,
+// then handed to subscribers by OutboxRelay. Ids come from a pooled sequence and so do not
+// follow commit order; the relay assigns position once the row is committed, and
+// subscribers read the log in position order.
+@Setter
+@Getter
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_position", columnList = "position")
+})
+public class OutboxEvent {
+
+    public enum Type {
+        BOOKING_CREATED,
+        BOOKING_UPDATED,
+        BOOKING_CANCELLED,
+        BOOKING_STATUS_CHANGED,
+        BOOKING_DELETED,
+        FLIGHT_CREATED,
+        FLIGHT_UPDATED,
+        SEATS_HELD,
+        SEATS_RELEASED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    // Null until the relay has sequenced the event
+    private Long position;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    // "booking" or "flight" - events about one aggregate keep their relative order
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // JSON document, passed through to subscribers as is
+    @JsonRawValue
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
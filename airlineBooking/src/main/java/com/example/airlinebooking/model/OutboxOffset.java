@@ -0,0 +1,32 @@
+package com.example.airlinebooking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Last outbox position a subscriber has acknowledged. The relay locks this row while it
+// delivers, so each subscriber is served by one instance at a time.
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_offsets")
+public class OutboxOffset {
+
+    @Id
+    private String subscriber;
+
+    @Column(nullable = false)
+    private long position;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public OutboxOffset(String subscriber) {
+        this.subscriber = subscriber;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.airlinebooking.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Seats taken for a checkout that has not been confirmed yet. The row is written and removed
+// in the same transaction as the seats it takes and gives back, so every instance sees the
+// same holds and seat map reconciliation counts their seats as taken.
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "seat_holds", indexes = {
+        @Index(name = "idx_seat_holds_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_seat_holds_user_id", columnList = "user_id")
+})
+public class SeatHold {
+
+    @Id
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "flight_id", nullable = false)
+    private Long flightId;
+
+    // Comma separated, as SeatMapReconciler reads it back
+    @Getter(AccessLevel.NONE)
+    @Column(name = "seat_numbers", nullable = false, length = 1000)
+    private String seatNumbers;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public SeatHold(String id, Long userId, Long flightId, List<Integer> seatNumbers, LocalDateTime expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.flightId = flightId;
+        this.seatNumbers = format(seatNumbers);
+        this.expiresAt = expiresAt;
+    }
+
+    public List<Integer> getSeatNumbers() {
+        return parse(seatNumbers);
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    public static String format(List<Integer> seatNumbers) {
+        return seatNumbers.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    public static List<Integer> parse(String seatNumbers) {
+        return Arrays.stream(seatNumbers.split(",")).map(Integer::valueOf).toList();
+    }
+}
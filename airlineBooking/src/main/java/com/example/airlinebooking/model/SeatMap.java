@@ -0,0 +1,134 @@
+package com.example.airlinebooking.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Seat allocation bitmap stored in flights.seat_map. Bit n (little-endian within each byte)
+// is seat n + 1, so a 300-seat aircraft takes 38 bytes. Not thread-safe - callers hold
+// the flight row lock or work on a private copy.
+public class SeatMap {
+
+    // Bounded by the seat_map column length
+    public static final int MAX_CAPACITY = Flight.SEAT_MAP_BYTES * 8;
+
+    private byte[] bits;
+    private int capacity;
+
+    private SeatMap(byte[] bits, int capacity) {
+        this.bits = bits;
+        this.capacity = capacity;
+    }
+
+    public static SeatMap empty(int capacity) {
+        return new SeatMap(new byte[bytesFor(capacity)], capacity);
+    }
+
+    // A missing or short column (rows written before seat maps existed) reads as free seats
+    public static SeatMap of(byte[] stored, int capacity) {
+        byte[] bits = new byte[bytesFor(capacity)];
+        if (stored != null) {
+            System.arraycopy(stored, 0, bits, 0, Math.min(stored.length, bits.length));
+        }
+        SeatMap seatMap = new SeatMap(bits, capacity);
+        seatMap.clearAbove(capacity);
+        return seatMap;
+    }
+
+    public static SeatMap of(Flight flight) {
+        return of(flight.getSeatMap(), flight.getCapacity());
+    }
+
+    public static int bytesFor(int capacity) {
+        return (capacity + 7) >>> 3;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isTaken(int seatNumber) {
+        if (seatNumber < 1 || seatNumber > capacity) {
+            return false;
+        }
+        int bit = seatNumber - 1;
+        return (bits[bit >>> 3] & (1 << (bit & 7))) != 0;
+    }
+
+    // Takes a specific seat - false when it is taken or not on this aircraft
+    public boolean take(int seatNumber) {
+        if (seatNumber < 1 || seatNumber > capacity || isTaken(seatNumber)) {
+            return false;
+        }
+        int bit = seatNumber - 1;
+        bits[bit >>> 3] |= (byte) (1 << (bit & 7));
+        return true;
+    }
+
+    // Takes the lowest free seat - returns 0 when the flight is full
+    public int takeNextFree() {
+        for (int i = 0; i < bits.length; i++) {
+            int free = ~bits[i] & 0xFF;
+            if (free != 0) {
+                int seatNumber = (i << 3) + Integer.numberOfTrailingZeros(free) + 1;
+                return take(seatNumber) ? seatNumber : 0;
+            }
+        }
+        return 0;
+    }
+
+    public boolean release(int seatNumber) {
+        if (!isTaken(seatNumber)) {
+            return false;
+        }
+        int bit = seatNumber - 1;
+        bits[bit >>> 3] &= (byte) ~(1 << (bit & 7));
+        return true;
+    }
+
+    public int takenCount() {
+        int count = 0;
+        for (byte b : bits) {
+            count += Integer.bitCount(b & 0xFF);
+        }
+        return count;
+    }
+
+    public int availableSeats() {
+        return capacity - takenCount();
+    }
+
+    // Changes the aircraft size - false when a seat above the new capacity is still taken
+    public boolean resize(int newCapacity) {
+        for (int seatNumber = newCapacity + 1; seatNumber <= capacity; seatNumber++) {
+            if (isTaken(seatNumber)) {
+                return false;
+            }
+        }
+        bits = Arrays.copyOf(bits, bytesFor(newCapacity));
+        capacity = newCapacity;
+        clearAbove(newCapacity);
+        return true;
+    }
+
+    public List<Integer> takenSeats() {
+        List<Integer> taken = new ArrayList<>(takenCount());
+        for (int seatNumber = 1; seatNumber <= capacity; seatNumber++) {
+            if (isTaken(seatNumber)) {
+                taken.add(seatNumber);
+            }
+        }
+        return taken;
+    }
+
+    public byte[] toBytes() {
+        return bits.clone();
+    }
+
+    // Padding bits past the last seat must stay clear so they never count as taken
+    private void clearAbove(int seats) {
+        if (bits.length > 0 && (seats & 7) != 0) {
+            bits[bits.length - 1] &= (byte) ((1 << (seats & 7)) - 1);
+        }
+    }
+}
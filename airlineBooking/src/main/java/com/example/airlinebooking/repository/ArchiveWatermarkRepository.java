@@ -0,0 +1,17 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.ArchiveWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ArchiveWatermarkRepository extends JpaRepository<ArchiveWatermark, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM ArchiveWatermark w WHERE w.name = :name")
+    Optional<ArchiveWatermark> lock(@Param("name") String name);
+}
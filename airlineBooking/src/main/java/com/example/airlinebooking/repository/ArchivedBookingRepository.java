@@ -0,0 +1,28 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.dto.BookingView;
+import com.example.airlinebooking.model.ArchivedBooking;
+import com.example.airlinebooking.model.BookingStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    // Same shape as the live booking history, newest first, starting below an id
+    @Query("SELECT new com.example.airlinebooking.dto.BookingView(b.id, b.status, b.seatNumber, " +
+           "f.id, f.origin, f.destination, f.departureTime, f.arrivalTime) " +
+           "FROM ArchivedBooking b JOIN ArchivedFlight f ON f.id = b.flightId " +
+           "WHERE b.userId = :userId AND b.id < :beforeId ORDER BY b.id DESC")
+    List<BookingView> findHistory(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT new com.example.airlinebooking.dto.BookingView(b.id, b.status, b.seatNumber, " +
+           "f.id, f.origin, f.destination, f.departureTime, f.arrivalTime) " +
+           "FROM ArchivedBooking b JOIN ArchivedFlight f ON f.id = b.flightId " +
+           "WHERE b.userId = :userId AND b.status = :status AND b.id < :beforeId ORDER BY b.id DESC")
+    List<BookingView> findHistoryByStatus(@Param("userId") Long userId, @Param("status") BookingStatus status,
+                                          @Param("beforeId") Long beforeId, Limit limit);
+}
@@ -0,0 +1,20 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.ArchivedFlight;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ArchivedFlightRepository extends JpaRepository<ArchivedFlight, Long> {
+
+    // One route's departed flights, newest first, after the (departureTime, id) position
+    @Query("SELECT f FROM ArchivedFlight f WHERE f.origin = :origin AND f.destination = :destination " +
+           "AND (f.departureTime < :time OR (f.departureTime = :time AND f.id < :id)) " +
+           "ORDER BY f.departureTime DESC, f.id DESC")
+    List<ArchivedFlight> findRoute(@Param("origin") String origin, @Param("destination") String destination,
+                                   @Param("time") LocalDateTime time, @Param("id") Long id, Limit limit);
+}
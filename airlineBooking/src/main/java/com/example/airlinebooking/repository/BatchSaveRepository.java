@@ -0,0 +1,13 @@
+package com.example.airlinebooking.repository;
+
+import java.util.List;
+
+// Bulk insert path shared by the entity repositories
+public interface BatchSaveRepository<T> {
+
+    // Persists new entities in JDBC batches, flushing and clearing the persistence context
+    // after every batch so memory stays flat however many rows are written. Entities managed
+    // by the caller's transaction are detached along the way. Returns the detached entities
+    // with their ids assigned.
+    <S extends T> List<S> saveAllInBatches(Iterable<S> entities);
+}
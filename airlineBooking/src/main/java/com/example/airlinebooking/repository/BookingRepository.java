@@ -1,18 +1,60 @@
 package com.example.airlinebooking.repository;
 
+import com.example.airlinebooking.dto.BookingView;
 import com.example.airlinebooking.model.Booking;
 import com.example.airlinebooking.model.BookingStatus;
 import com.example.airlinebooking.model.Flight;
 import com.example.airlinebooking.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Optional<Booking> findByUserAndFlight(User user, Flight flight);
+// A booking is one passenger's seat - a user may hold several on the same flight, as group
+// bookings and confirmed holds do
+public interface BookingRepository extends JpaRepository<Booking, Long>, BatchSaveRepository<Booking> {
     long countByFlightAndStatus(Flight flight, BookingStatus status);
+    List<Booking> findByFlightAndStatus(Flight flight, BookingStatus status);
     List<Booking> findByUser(User user);
+
+    // One joined select, no entities - neither the user row nor lazy flight loads are touched
+    @Query("SELECT new com.example.airlinebooking.dto.BookingView(b.id, b.status, b.seatNumber, " +
+           "f.id, f.origin, f.destination, f.departureTime, f.arrivalTime) " +
+           "FROM Booking b JOIN b.flight f WHERE b.user.id = :userId ORDER BY b.id")
+    List<BookingView> findViewsByUserId(@Param("userId") Long userId);
+
+    // History pages, newest first, starting below an id - each one a bounded index range scan
+    @Query("SELECT new com.example.airlinebooking.dto.BookingView(b.id, b.status, b.seatNumber, " +
+           "f.id, f.origin, f.destination, f.departureTime, f.arrivalTime) " +
+           "FROM Booking b JOIN b.flight f WHERE b.user.id = :userId AND b.id < :beforeId ORDER BY b.id DESC")
+    List<BookingView> findHistory(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT new com.example.airlinebooking.dto.BookingView(b.id, b.status, b.seatNumber, " +
+           "f.id, f.origin, f.destination, f.departureTime, f.arrivalTime) " +
+           "FROM Booking b JOIN b.flight f WHERE b.user.id = :userId AND b.status = :status AND b.id < :beforeId " +
+           "ORDER BY b.id DESC")
+    List<BookingView> findHistoryByStatus(@Param("userId") Long userId, @Param("status") BookingStatus status,
+                                          @Param("beforeId") Long beforeId, Limit limit);
     List<Booking> findByUserEmail(String email);
-    void deleteByUser(User user);
+
+    // Whether an active booking already sits in any of the seats
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.flight.id = :flightId AND b.seatNumber IN :seatNumbers " +
+           "AND b.status <> com.example.airlinebooking.model.BookingStatus.CANCELLED")
+    boolean existsActiveSeat(@Param("flightId") Long flightId, @Param("seatNumbers") Collection<Integer> seatNumbers);
+
+    // Compare-and-set cancellation - returns 0 if the booking changed since it was read
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.example.airlinebooking.model.BookingStatus.CANCELLED, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.version = :version AND b.status <> com.example.airlinebooking.model.BookingStatus.CANCELLED")
+    int cancelIfUnchanged(@Param("id") Long id, @Param("version") Long version);
+
+    // Compare-and-set flight change - same lock order as cancellation (booking row first)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.flight.id = :flightId, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.version = :version AND b.status <> com.example.airlinebooking.model.BookingStatus.CANCELLED")
+    int moveIfUnchanged(@Param("id") Long id, @Param("version") Long version, @Param("flightId") Long flightId);
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.CatalogCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface CatalogCounterRepository extends JpaRepository<CatalogCounter, String> {
+
+    @Modifying
+    @Query("UPDATE CatalogCounter c SET c.version = c.version + 1, c.updatedAt = :now WHERE c.name = :name")
+    int increment(@Param("name") String name, @Param("now") LocalDateTime now);
+
+    // Straight from the table, not from an entity the session may already hold
+    @Query("SELECT c.version FROM CatalogCounter c WHERE c.name = :name")
+    long version(@Param("name") String name);
+}
@@ -0,0 +1,41 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.dto.RouteStats;
+import com.example.airlinebooking.model.FlightBookingStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface FlightBookingStatsRepository extends JpaRepository<FlightBookingStats, Long> {
+
+    // Adds the deltas in place - no read, so concurrent bookings never overwrite each other's counts
+    @Modifying
+    @Query("UPDATE FlightBookingStats s SET s.confirmed = s.confirmed + :confirmed, s.delayed = s.delayed + :delayed, " +
+           "s.cancelled = s.cancelled + :cancelled, " +
+           "s.loadFactor = (s.confirmed + s.delayed + :confirmed + :delayed) / (1.0 * s.capacity), s.updatedAt = :now " +
+           "WHERE s.flightId = :flightId")
+    int adjust(@Param("flightId") Long flightId, @Param("confirmed") long confirmed, @Param("delayed") long delayed,
+               @Param("cancelled") long cancelled, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE FlightBookingStats s SET s.origin = :origin, s.destination = :destination, " +
+           "s.departureTime = :departureTime, s.capacity = :capacity, " +
+           "s.loadFactor = (s.confirmed + s.delayed) / (1.0 * :capacity), s.updatedAt = :now WHERE s.flightId = :flightId")
+    int updateFlight(@Param("flightId") Long flightId, @Param("origin") String origin,
+                     @Param("destination") String destination, @Param("departureTime") LocalDateTime departureTime,
+                     @Param("capacity") int capacity, @Param("now") LocalDateTime now);
+
+    @Query("SELECT s FROM FlightBookingStats s WHERE s.departureTime >= :from ORDER BY s.loadFactor DESC, s.flightId")
+    List<FlightBookingStats> findFullest(@Param("from") LocalDateTime from, Limit limit);
+
+    @Query("SELECT new com.example.airlinebooking.dto.RouteStats(s.origin, s.destination, COUNT(s), " +
+           "SUM(s.capacity), SUM(s.confirmed), SUM(s.delayed), SUM(s.cancelled)) " +
+           "FROM FlightBookingStats s WHERE s.departureTime >= :from " +
+           "GROUP BY s.origin, s.destination ORDER BY s.origin, s.destination")
+    List<RouteStats> findRoutes(@Param("from") LocalDateTime from);
+}
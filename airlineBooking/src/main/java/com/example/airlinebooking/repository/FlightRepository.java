@@ -1,7 +1,55 @@
 package com.example.airlinebooking.repository;
 
+import com.example.airlinebooking.dto.FlightSummary;
 import com.example.airlinebooking.model.Flight;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface FlightRepository extends JpaRepository<Flight, Long> {
-} 
\ No newline at end of file
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface FlightRepository extends JpaRepository<Flight, Long>, BatchSaveRepository<Flight>,
+        JpaSpecificationExecutor<Flight>, FlightSearchRepository {
+
+    // Flights as plain rows, no entities or seat maps
+    String SELECT_SUMMARY = "SELECT new com.example.airlinebooking.dto.FlightSummary(f.id, f.origin, f.destination, " +
+            "f.departureTime, f.arrivalTime, f.capacity, f.availableSeats, f.version) FROM Flight f ";
+
+    // On Postgres this is an index range scan over idx_flights_bookable, which only holds
+    // flights with seats left
+    @Query(SELECT_SUMMARY + "WHERE f.availableSeats > 0 AND f.departureTime > :now ORDER BY f.departureTime, f.id")
+    List<FlightSummary> findBookable(@Param("now") LocalDateTime now);
+
+    // When the bookable list next changes without a write - the first bookable flight departing
+    @Query("SELECT MIN(f.departureTime) FROM Flight f WHERE f.availableSeats > 0 AND f.departureTime > :now")
+    LocalDateTime findNextDeparture(@Param("now") LocalDateTime now);
+
+    @Query(SELECT_SUMMARY + "ORDER BY f.id")
+    List<FlightSummary> findAllSummaries();
+
+    // Forward-only cursor over the whole table, fetched from the database in batches -
+    // must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f FROM Flight f ORDER BY f.id")
+    Stream<Flight> streamAll();
+
+    // Candidates for matching imported rows by schedule - a superset, narrowed by the caller
+    @Query("SELECT f FROM Flight f WHERE f.origin IN :origins AND f.destination IN :destinations " +
+            "AND f.departureTime BETWEEN :from AND :to ORDER BY f.id")
+    List<Flight> findSchedules(@Param("origins") Collection<String> origins,
+                               @Param("destinations") Collection<String> destinations,
+                               @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(SELECT_SUMMARY + "WHERE f.id IN :ids")
+    List<FlightSummary> findSummariesByIdIn(@Param("ids") Collection<? extends Long> ids);
+}
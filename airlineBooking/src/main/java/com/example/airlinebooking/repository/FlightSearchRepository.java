@@ -0,0 +1,14 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.model.Flight;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Search over flights read as plain rows, like the other listing queries
+public interface FlightSearchRepository {
+
+    // Up to limit flights matching spec, ordered by departure time then id
+    List<FlightSummary> findSummaries(Specification<Flight> spec, int limit);
+}
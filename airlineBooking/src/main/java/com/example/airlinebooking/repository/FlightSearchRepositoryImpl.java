@@ -0,0 +1,36 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.model.Flight;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class FlightSearchRepositoryImpl implements FlightSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FlightSummary> findSummaries(Specification<Flight> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FlightSummary> query = cb.createQuery(FlightSummary.class);
+        Root<Flight> flight = query.from(Flight.class);
+        // Same columns as FlightRepository.SELECT_SUMMARY - the seat map is never read
+        query.select(cb.construct(FlightSummary.class, flight.get("id"), flight.get("origin"),
+                flight.get("destination"), flight.get("departureTime"), flight.get("arrivalTime"),
+                flight.get("capacity"), flight.get("availableSeats"), flight.get("version")));
+        Predicate predicate = spec.toPredicate(flight, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(flight.get("departureTime")), cb.asc(flight.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.Flight;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+// Search predicates for flights. Only the filters a client actually sent are added, so the
+// generated SQL stays a plain conjunction the composite indexes on flights can serve.
+public final class FlightSpecifications {
+
+    private FlightSpecifications() {
+    }
+
+    public static Specification<Flight> origin(String origin) {
+        return (root, query, cb) -> cb.equal(root.get("origin"), origin);
+    }
+
+    public static Specification<Flight> destination(String destination) {
+        return (root, query, cb) -> cb.equal(root.get("destination"), destination);
+    }
+
+    public static Specification<Flight> departsAtOrAfter(LocalDateTime time) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("departureTime"), time);
+    }
+
+    public static Specification<Flight> departsBefore(LocalDateTime time) {
+        return (root, query, cb) -> cb.lessThan(root.get("departureTime"), time);
+    }
+
+    public static Specification<Flight> hasAtLeastSeats(int seats) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("availableSeats"), seats);
+    }
+
+    // Seek predicate for ORDER BY departure_time, id: rows strictly after the cursor row
+    public static Specification<Flight> after(LocalDateTime departureTime, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("departureTime"), departureTime),
+                cb.and(cb.equal(root.get("departureTime"), departureTime), cb.greaterThan(root.get("id"), id)));
+    }
+}
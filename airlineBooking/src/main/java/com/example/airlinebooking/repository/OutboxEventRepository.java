@@ -0,0 +1,32 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Committed events still waiting for a position, oldest first
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position IS NULL ORDER BY e.createdAt, e.id")
+    List<OutboxEvent> findUnsequenced(Limit limit);
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position > :after ORDER BY e.position")
+    List<OutboxEvent> findAfter(@Param("after") long after, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM OutboxEvent e")
+    long lastPosition();
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.position IS NULL")
+    long countUnsequenced();
+
+    // Events every subscriber has acknowledged and that are past retention
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.position <= :position AND e.createdAt < :before")
+    int deleteDelivered(@Param("position") long position, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,17 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.OutboxOffset;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxOffset o WHERE o.subscriber = :subscriber")
+    Optional<OutboxOffset> lock(@Param("subscriber") String subscriber);
+}
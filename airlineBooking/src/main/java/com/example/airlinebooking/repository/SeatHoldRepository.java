@@ -0,0 +1,28 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.SeatHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface SeatHoldRepository extends JpaRepository<SeatHold, String> {
+
+    // Confirm, release and expiry each take this lock, so only one of them ever claims a hold
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM SeatHold h WHERE h.id = :id")
+    Optional<SeatHold> findForUpdate(@Param("id") String id);
+
+    @Query("SELECT COUNT(h) FROM SeatHold h WHERE h.userId = :userId AND h.expiresAt > :now")
+    long countActive(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Oldest first, so a backlog is worked off in expiry order
+    @Query("SELECT h.id FROM SeatHold h WHERE h.expiresAt <= :now ORDER BY h.expiresAt")
+    List<String> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+}
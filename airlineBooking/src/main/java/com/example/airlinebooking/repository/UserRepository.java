@@ -1,9 +1,19 @@
 package com.example.airlinebooking.repository;
 
 import com.example.airlinebooking.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, BatchSaveRepository<User> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    // Serialises one user's seat holds, so the per-user cap cannot be raced past
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,77 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.dto.ArchivedRouteResponse;
+import com.example.airlinebooking.dto.BookingHistoryRequest;
+import com.example.airlinebooking.dto.BookingHistoryResponse;
+import com.example.airlinebooking.dto.BookingView;
+import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.model.ArchivedFlight;
+import com.example.airlinebooking.repository.ArchivedBookingRepository;
+import com.example.airlinebooking.repository.ArchivedFlightRepository;
+import com.example.airlinebooking.util.KeysetCursor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Reads over the archive tables written by FlightArchiver. Kept apart from the live
+// services, so no hot query ever has to look at archived rows.
+@Service
+@Transactional(readOnly = true)
+public class ArchiveService {
+
+    private final ArchivedFlightRepository archivedFlightRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+
+    public ArchiveService(ArchivedFlightRepository archivedFlightRepository,
+                          ArchivedBookingRepository archivedBookingRepository) {
+        this.archivedFlightRepository = archivedFlightRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+    }
+
+    public ArchivedFlight getFlight(Long id) {
+        return archivedFlightRepository.findById(id)
+                .orElseThrow(() -> new FlightNotFoundException("Archived flight not found"));
+    }
+
+    // Newest departures first, paged like the live flight search. The id breaks ties, so
+    // flights sharing the departure time at a page boundary are neither skipped nor repeated.
+    public ArchivedRouteResponse getRoute(String origin, String destination, String cursor, int limit) {
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        if (position == null) {
+            position = new KeysetCursor(LocalDateTime.now(), Long.MAX_VALUE);
+        }
+        List<ArchivedFlight> flights = archivedFlightRepository.findRoute(origin.toUpperCase(), destination.toUpperCase(),
+                position.getTime(), position.getId(), Limit.of(limit + 1));
+
+        String nextCursor = null;
+        if (flights.size() > limit) {
+            flights = flights.subList(0, limit);
+            ArchivedFlight last = flights.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getDepartureTime(), last.getId()).encode();
+        }
+        return new ArchivedRouteResponse(flights, nextCursor);
+    }
+
+    // Same paging as the live booking history
+    public BookingHistoryResponse getBookingHistory(Long userId, BookingHistoryRequest request) {
+        Long cursor = KeysetCursor.decodeId(request.getCursor());
+        Long beforeId = cursor != null ? cursor : Long.MAX_VALUE;
+        int limit = request.getLimit();
+        List<BookingView> bookings = request.getStatus() != null
+                ? archivedBookingRepository.findHistoryByStatus(userId, request.getStatus(), beforeId, Limit.of(limit + 1))
+                : archivedBookingRepository.findHistory(userId, beforeId, Limit.of(limit + 1));
+
+        String nextCursor = null;
+        if (bookings.size() > limit) {
+            bookings = bookings.subList(0, limit);
+            nextCursor = KeysetCursor.encodeId(bookings.get(limit - 1).getId());
+        }
+        return new BookingHistoryResponse(bookings, nextCursor);
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.dto.AvailabilityDelta;
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.exception.StreamCapacityException;
+import com.example.airlinebooking.exception.StreamClientLimitException;
+import com.example.airlinebooking.model.OutboxEvent;
+import com.example.airlinebooking.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes seat availability to server-sent event subscribers. Seat changes only mark their
+// flight as changed: committed ones on this instance straight away, and those of every instance
+// as they appear in the outbox. A timer turns the marked flights into one delta each per
+// interval and queues them per subscriber, where a newer delta for a flight replaces one not
+// sent yet. Deltas read the primary past the flight cache, so a change made on another instance
+// is never sent with the seats from before it. Sending happens on a small pool with at most one
+// task per subscriber. The write itself runs on a writer thread and a sender waits for it only
+// up to slow-consumer-ms, then drops the subscriber, so stalled clients cannot keep the senders
+// from the others. A stalled write keeps its writer thread until the container gives up on the
+// connection, and counts against max-subscribers until then, so writer threads never outnumber
+// max-subscribers.
+@Service
+public class AvailabilityStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityStream.class);
+
+    static final String EVENT_NAME = "availability";
+    private static final int OUTBOX_BATCH_SIZE = 500;
+
+    private static final int IDLE = 0;
+    private static final int WRITING = 1;
+    private static final int STALLED = 2;
+
+    private final FlightService flightService;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int maxPerClient;
+    private final int maxFlightIds;
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final long slowConsumerMillis;
+    private final ExecutorService senders;
+    // One thread per write in flight, which is at most one per subscriber, live or stalled
+    private final ExecutorService writers;
+    private final Counter dropped;
+
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Dropped subscribers whose write has not returned yet
+    private final AtomicInteger stalledWrites = new AtomicInteger();
+    // Open streams per client address
+    private final Map<String, Integer> perClient = new ConcurrentHashMap<>();
+    // Last outbox position read, or -1 while nobody is subscribed
+    private volatile long outboxPosition = -1;
+    // Starts from the clock, so versions keep increasing across restarts
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    public AvailabilityStream(FlightService flightService, OutboxEventRepository outboxEventRepository,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${availability.stream.max-subscribers:1000}") int maxSubscribers,
+                              @Value("${availability.stream.max-per-client:5}") int maxPerClient,
+                              @Value("${availability.stream.max-flight-ids:100}") int maxFlightIds,
+                              @Value("${availability.stream.timeout-ms:1800000}") long timeoutMillis,
+                              @Value("${availability.stream.heartbeat-ms:15000}") long heartbeatMillis,
+                              @Value("${availability.stream.slow-consumer-ms:10000}") long slowConsumerMillis,
+                              @Value("${availability.stream.sender-threads:8}") int senderThreads) {
+        this.flightService = flightService;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPerClient = maxPerClient;
+        this.maxFlightIds = maxFlightIds;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.slowConsumerMillis = slowConsumerMillis;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writers = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "availability-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dropped = meterRegistry.counter("availability.stream.dropped");
+        Gauge.builder("availability.stream.subscribers", subscribers, List::size)
+                .description("Open availability stream connections")
+                .register(meterRegistry);
+    }
+
+    // Specific flights get their current availability straight away; a route subscription
+    // only receives changes. No filter at all streams every flight.
+    public SseEmitter subscribe(Set<Long> flightIds, String origin, String destination, String client) {
+        if (flightIds.size() > maxFlightIds) {
+            throw new IllegalArgumentException("At most " + maxFlightIds + " flights per subscription");
+        }
+        if (subscribers.size() + stalledWrites.get() >= maxSubscribers) {
+            throw new StreamCapacityException(subscribers.size() + " availability subscribers already connected");
+        }
+        if (perClient.merge(client, 1, Integer::sum) > maxPerClient) {
+            releaseClient(client);
+            throw new StreamClientLimitException(client + " already has " + maxPerClient + " availability streams open");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, client, Set.copyOf(flightIds), normalise(origin), normalise(destination));
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        subscribers.add(subscriber);
+
+        for (Long flightId : subscriber.flightIds) {
+            AvailabilityDelta delta = delta(flightId);
+            if (delta != null) {
+                subscriber.pending.put(flightId, delta);
+            }
+        }
+        drain(subscriber);
+        return emitter;
+    }
+
+    // Runs on the committing thread, so it only records which flight changed.
+    // fallbackExecution covers changes made outside a transaction, such as hold expiry.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            changed.add(event.getFlightId());
+        }
+    }
+
+    // However often a flight changed within the interval, subscribers see its latest count once
+    @Scheduled(fixedDelayString = "${availability.stream.interval-ms:1000}")
+    public void publish() {
+        readOutbox();
+        Iterator<Long> flightIds = changed.iterator();
+        while (flightIds.hasNext()) {
+            Long flightId = flightIds.next();
+            flightIds.remove();
+            AvailabilityDelta delta = delta(flightId);
+            if (delta == null) {
+                continue;
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.matches(delta)) {
+                    subscriber.pending.put(flightId, delta);
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.pending.isEmpty() || now - subscriber.lastSent > heartbeatMillis) {
+                drain(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // At most one send task per subscriber; changes queued meanwhile go out with the next one
+    private void drain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        senders.execute(() -> {
+            try {
+                send(subscriber);
+            } finally {
+                subscriber.draining.set(false);
+            }
+        });
+    }
+
+    // Waits for the write no longer than slow-consumer-ms. A blocked servlet write cannot be
+    // interrupted, so a stalled one is left to its writer thread while the subscriber is dropped.
+    private void send(Subscriber subscriber) {
+        // A dropped subscriber can still be drained once by a publish already under way
+        if (subscriber.closed.get() || !subscriber.writeState.compareAndSet(IDLE, WRITING)) {
+            return;
+        }
+        Future<?> write;
+        try {
+            write = writers.submit(() -> write(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Only when subscribers raced past the cap - nothing was written, so end it here
+            subscriber.writeState.set(IDLE);
+            close(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        try {
+            write.get(slowConsumerMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Unless the write finished just now, its thread fails the emitter once it returns
+            if (subscriber.writeState.compareAndSet(WRITING, STALLED)) {
+                stalledWrites.incrementAndGet();
+                logger.warn("Dropping availability subscriber stalled for over {} ms", slowConsumerMillis);
+                dropped.increment();
+                close(subscriber);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Availability send failed", e.getCause());
+            close(subscriber);
+        }
+    }
+
+    private void write(Subscriber subscriber) {
+        try {
+            writeEvents(subscriber);
+        } finally {
+            if (!subscriber.writeState.compareAndSet(WRITING, IDLE)) {
+                // The sender gave up on this write; the emitter is no longer locked by it
+                stalledWrites.decrementAndGet();
+                subscriber.emitter.completeWithError(
+                        new IOException("Availability subscriber stalled for over " + slowConsumerMillis + " ms"));
+            } else if (subscriber.closed.get()) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void writeEvents(Subscriber subscriber) {
+        try {
+            if (subscriber.pending.isEmpty()) {
+                // Comment lines keep proxies from closing an idle connection
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            for (Long flightId : subscriber.pending.keySet()) {
+                if (subscriber.closed.get()) {
+                    return;
+                }
+                AvailabilityDelta delta = subscriber.pending.remove(flightId);
+                if (delta != null) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(EVENT_NAME)
+                            .id(String.valueOf(delta.getVersion()))
+                            .data(delta, MediaType.APPLICATION_JSON));
+                }
+            }
+            subscriber.lastSent = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, or the emitter already completed
+            logger.debug("Availability subscriber disconnected: {}", e.getMessage());
+            close(subscriber);
+        }
+    }
+
+    // Marks the flights other instances changed, as well as this one's again. Local events
+    // arrive sooner; the outbox is what makes the stream the same whichever instance serves it.
+    private void readOutbox() {
+        if (subscribers.isEmpty()) {
+            outboxPosition = -1;
+            return;
+        }
+        if (outboxPosition < 0) {
+            // Subscribers get snapshots or only later changes, so older events are not needed
+            outboxPosition = outboxEventRepository.lastPosition();
+            return;
+        }
+        List<OutboxEvent> events;
+        do {
+            events = outboxEventRepository.findAfter(outboxPosition, Limit.of(OUTBOX_BATCH_SIZE));
+            for (OutboxEvent event : events) {
+                changedFlights(event).forEach(changed::add);
+                outboxPosition = event.getPosition();
+            }
+        } while (events.size() == OUTBOX_BATCH_SIZE);
+    }
+
+    // Flight events name their flight; booking events carry it, and the old one for a move
+    private List<Long> changedFlights(OutboxEvent event) {
+        if ("flight".equals(event.getAggregateType())) {
+            return List.of(event.getAggregateId());
+        }
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            List<Long> flightIds = new ArrayList<>(2);
+            for (String field : List.of("flightId", "previousFlightId")) {
+                if (payload.hasNonNull(field)) {
+                    flightIds.add(payload.get(field).asLong());
+                }
+            }
+            return flightIds;
+        } catch (JsonProcessingException e) {
+            logger.warn("Skipping unreadable outbox event {}", event.getId());
+            return List.of();
+        }
+    }
+
+    private AvailabilityDelta delta(Long flightId) {
+        try {
+            FlightSummary flight = flightService.getCurrentFlight(flightId);
+            return new AvailabilityDelta(flight.getId(), flight.getOrigin(), flight.getDestination(),
+                    flight.getAvailableSeats(), version.incrementAndGet());
+        } catch (FlightNotFoundException e) {
+            return null;
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            releaseClient(subscriber.client);
+        }
+        subscriber.pending.clear();
+        subscribers.remove(subscriber);
+    }
+
+    private void releaseClient(String client) {
+        perClient.computeIfPresent(client, (key, open) -> open == 1 ? null : open - 1);
+    }
+
+    private static String normalise(String airport) {
+        return airport == null || airport.isBlank() ? null : airport.trim().toUpperCase();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final String client;
+        private final Set<Long> flightIds;
+        private final String origin;
+        private final String destination;
+        // Latest unsent delta per flight
+        private final Map<Long, AvailabilityDelta> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // IDLE, WRITING, or STALLED once the sender stopped waiting for the write
+        private final AtomicInteger writeState = new AtomicInteger(IDLE);
+        private volatile long lastSent = System.currentTimeMillis();
+
+        private Subscriber(SseEmitter emitter, String client, Set<Long> flightIds, String origin, String destination) {
+            this.emitter = emitter;
+            this.client = client;
+            this.flightIds = flightIds;
+            this.origin = origin;
+            this.destination = destination;
+        }
+
+        private boolean matches(AvailabilityDelta delta) {
+            if (!flightIds.isEmpty()) {
+                return flightIds.contains(delta.getFlightId());
+            }
+            return (origin == null || origin.equals(delta.getOrigin()))
+                    && (destination == null || destination.equals(delta.getDestination()));
+        }
+    }
+}
@@ -1,17 +1,30 @@
 package com.example.airlinebooking.service;
 
+import com.example.airlinebooking.dto.BookingHistoryRequest;
+import com.example.airlinebooking.dto.BookingHistoryResponse;
+import com.example.airlinebooking.dto.BookingView;
 import com.example.airlinebooking.model.*;
 import com.example.airlinebooking.repository.*;
 import com.example.airlinebooking.exception.BookingException;
 import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.exception.HeldSeatsLostException;
 import com.example.airlinebooking.exception.UserNotFoundException;
 import com.example.airlinebooking.exception.BookingNotFoundException;
 import com.example.airlinebooking.exception.UnauthorizedAccessException;
+import com.example.airlinebooking.util.KeysetCursor;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Service
 @Transactional
@@ -19,49 +32,118 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final BookingStatsService bookingStatsService;
 
-    public BookingService(BookingRepository bookingRepository, UserRepository userRepository, FlightRepository flightRepository) {
+    public BookingService(BookingRepository bookingRepository, UserRepository userRepository, FlightRepository flightRepository,
+                          SeatInventory seatInventory, ApplicationEventPublisher eventPublisher, OutboxService outboxService,
+                          BookingStatsService bookingStatsService) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.flightRepository = flightRepository;
+        this.seatInventory = seatInventory;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+        this.bookingStatsService = bookingStatsService;
     }
 
+    @RetryOnConflict
     public Booking createBooking(Long userId, Long flightId) {
-        // Find user and flight
+        return createBooking(userId, flightId, null);
+    }
+
+    // seatNumber is optional - the next free seat is assigned when it is null
+    @RetryOnConflict
+    public Booking createBooking(Long userId, Long flightId, Integer seatNumber) {
+        // Find user
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
-        
-        Flight flight = flightRepository.findById(flightId)
-                .orElseThrow(() -> new FlightNotFoundException("Flight not found with ID: " + flightId));
 
-        // Check if user already has a confirmed booking for this flight
-        Optional<Booking> existingBooking = bookingRepository.findByUserAndFlight(user, flight);
-        if (existingBooking.isPresent() && existingBooking.get().getStatus() == BookingStatus.CONFIRMED) {
-            throw new BookingException("You have already booked this flight");
-        }
-
-        // Check seat availability and reserve a seat atomically
-        if (!flight.hasAvailableSeats()) {
-            throw new BookingException("No available seats on this flight");
-        }
-
-        // Reserve the seat
-        if (!flight.reserveSeat()) {
-            throw new BookingException("Failed to reserve seat - flight may be full");
-        }
+        // Reserve the seat through the inventory - no read-modify-write of the flight row
+        int seat = reserveSeat(flightId, seatNumber, "No available seats on this flight");
 
-        // Save the updated flight with new seat count
-        flightRepository.save(flight);
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new FlightNotFoundException("Flight not found with ID: " + flightId));
 
         // Create the booking
         Booking booking = new Booking();
         booking.setUser(user);
         booking.setFlight(flight);
         booking.setStatus(BookingStatus.CONFIRMED);
-        
-        return bookingRepository.save(booking);
+        booking.setSeatNumber(seat);
+
+        Booking saved = bookingRepository.save(booking);
+        outboxService.bookingCreated(saved);
+        bookingStatsService.bookingsCreated(flightId, 1);
+        return saved;
+    }
+
+    // Books seats on several flights in one transaction - if any flight is short of seats
+    // nothing is booked. passengersByFlight maps flight id to the number of seats to take.
+    @RetryOnConflict
+    public List<Booking> createGroupBooking(Long userId, Map<Long, Integer> passengersByFlight) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
+
+        // Legs are reserved in flight id order so overlapping groups cannot deadlock
+        SortedMap<Long, Integer> legs = new TreeMap<>(passengersByFlight);
+        Map<Long, List<Integer>> seats = seatInventory.reserveGroup(legs);
+        if (seats.isEmpty()) {
+            throw groupBookingFailure(legs);
+        }
+        legs.keySet().forEach(flightId -> seatsChanged(flightId, FlightChangedEvent.Change.SEATS_TAKEN));
+
+        Map<Long, Flight> flights = new HashMap<>();
+        flightRepository.findAllById(legs.keySet()).forEach(flight -> flights.put(flight.getId(), flight));
+
+        List<Booking> bookings = new ArrayList<>();
+        seats.forEach((flightId, seatNumbers) -> {
+            for (Integer seatNumber : seatNumbers) {
+                Booking booking = new Booking();
+                booking.setUser(user);
+                booking.setFlight(flights.get(flightId));
+                booking.setStatus(BookingStatus.CONFIRMED);
+                booking.setSeatNumber(seatNumber);
+                bookings.add(booking);
+            }
+        });
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        outboxService.bookingsCreated(saved);
+        legs.keySet().forEach(flightId -> bookingStatsService.bookingsCreated(flightId, seats.get(flightId).size()));
+        return saved;
     }
 
+    // Turns seats held by SeatHoldService into bookings. The seats are already taken in the
+    // inventory, so only the booking rows are written - once the locked flight shows them
+    // still taken and no active booking owns any of them.
+    public List<Booking> confirmHeldSeats(Long userId, Long flightId, List<Integer> seatNumbers) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
+        if (!seatInventory.areTaken(flightId, seatNumbers)
+                || bookingRepository.existsActiveSeat(flightId, seatNumbers)) {
+            throw new HeldSeatsLostException("Held seats " + seatNumbers + " on flight " + flightId + " are no longer reserved");
+        }
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new FlightNotFoundException("Flight not found with ID: " + flightId));
+
+        List<Booking> bookings = new ArrayList<>(seatNumbers.size());
+        for (Integer seatNumber : seatNumbers) {
+            Booking booking = new Booking();
+            booking.setUser(user);
+            booking.setFlight(flight);
+            booking.setStatus(BookingStatus.CONFIRMED);
+            booking.setSeatNumber(seatNumber);
+            bookings.add(booking);
+        }
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        outboxService.bookingsCreated(saved);
+        bookingStatsService.bookingsCreated(flightId, seatNumbers.size());
+        return saved;
+    }
+
+    @RetryOnConflict
     public Booking cancelBooking(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with ID: " + bookingId));
@@ -76,21 +158,68 @@ public class BookingService {
             throw new BookingException("Booking is already cancelled");
         }
 
-        // Cancel the booking
-        booking.setStatus(BookingStatus.CANCELLED);
-        
-        // Release the seat back to the flight
-        Flight flight = booking.getFlight();
-        flight.releaseSeat();
-        flightRepository.save(flight);
+        // Cancel the booking only if nobody changed it since it was read - a lost race is retried
+        if (bookingRepository.cancelIfUnchanged(bookingId, booking.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Booking.class, bookingId);
+        }
         
-        return bookingRepository.save(booking);
+        // Release the seat back to the flight once the cancellation commits
+        releaseSeat(booking.getFlight().getId(), booking.getSeatNumber());
+
+        Booking cancelled = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException("Booking not found with ID: " + bookingId));
+        outboxService.bookingCancelled(cancelled);
+        bookingStatsService.statusChanged(cancelled.getFlight().getId(), booking.getStatus(), BookingStatus.CANCELLED);
+        return cancelled;
     }
 
-    public List<Booking> getUserBookings(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
-        return bookingRepository.findByUser(user);
+    // Removes every booking of an account that is being deleted. Each one leaves the counters
+    // and the outbox as a cancellation would, and an active one gives its seat back. The rows go
+    // first, so a booking changed meanwhile fails the version check before anything else moves.
+    public void deleteUserBookings(User user) {
+        List<Booking> bookings = new ArrayList<>(bookingRepository.findByUser(user));
+        // Lower flight id first, the order seats and stats rows are locked in
+        bookings.sort(Comparator.comparing((Booking booking) -> booking.getFlight().getId()));
+        bookingRepository.deleteAll(bookings);
+        bookingRepository.flush();
+
+        for (Booking booking : bookings) {
+            Long flightId = booking.getFlight().getId();
+            if (booking.getStatus() != BookingStatus.CANCELLED) {
+                releaseSeat(flightId, booking.getSeatNumber());
+            }
+            outboxService.bookingDeleted(booking);
+            bookingStatsService.bookingDeleted(flightId, booking.getStatus());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookingView> getUserBookings(Long userId) {
+        List<BookingView> bookings = bookingRepository.findViewsByUserId(userId);
+        // Only an empty list needs the extra lookup to tell "no bookings" from "no such user"
+        if (bookings.isEmpty() && !userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with ID: " + userId);
+        }
+        return bookings;
+    }
+
+    // One page of the user's bookings, newest first. Fetches one row more than the limit to
+    // tell whether another page follows, so the cost of a page never depends on history size.
+    @Transactional(readOnly = true)
+    public BookingHistoryResponse getBookingHistory(Long userId, BookingHistoryRequest request) {
+        Long cursor = KeysetCursor.decodeId(request.getCursor());
+        Long beforeId = cursor != null ? cursor : Long.MAX_VALUE;
+        int limit = request.getLimit();
+        List<BookingView> bookings = request.getStatus() != null
+                ? bookingRepository.findHistoryByStatus(userId, request.getStatus(), beforeId, Limit.of(limit + 1))
+                : bookingRepository.findHistory(userId, beforeId, Limit.of(limit + 1));
+
+        String nextCursor = null;
+        if (bookings.size() > limit) {
+            bookings = bookings.subList(0, limit);
+            nextCursor = KeysetCursor.encodeId(bookings.get(limit - 1).getId());
+        }
+        return new BookingHistoryResponse(bookings, nextCursor);
     }
 
     public Booking getBookingById(Long bookingId, Long userId) {
@@ -105,7 +234,14 @@ public class BookingService {
         return booking;
     }
 
+    @RetryOnConflict
     public Booking updateBooking(Long bookingId, Long userId, Long newFlightId) {
+        return updateBooking(bookingId, userId, newFlightId, null);
+    }
+
+    // seatNumber is optional - the next free seat on the new flight is assigned when it is null
+    @RetryOnConflict
+    public Booking updateBooking(Long bookingId, Long userId, Long newFlightId, Integer seatNumber) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with ID: " + bookingId));
         
@@ -119,44 +255,34 @@ public class BookingService {
             throw new BookingException("Cannot update a cancelled booking");
         }
 
-        // Find the new flight
-        Flight newFlight = flightRepository.findById(newFlightId)
-                .orElseThrow(() -> new FlightNotFoundException("New flight not found with ID: " + newFlightId));
-
         // Check if user is trying to update to the same flight
         if (booking.getFlight().getId().equals(newFlightId)) {
             throw new BookingException("Cannot update booking to the same flight");
         }
 
-        // Check if new flight has available seats
-        if (!newFlight.hasAvailableSeats()) {
-            throw new BookingException("No available seats on the new flight");
+        if (!flightRepository.existsById(newFlightId)) {
+            throw new FlightNotFoundException("New flight not found with ID: " + newFlightId);
         }
 
-        // Check if user already has a booking for the new flight
-        Optional<Booking> existingBooking = bookingRepository.findByUserAndFlight(booking.getUser(), newFlight);
-        if (existingBooking.isPresent() && existingBooking.get().getStatus() == BookingStatus.CONFIRMED 
-            && !existingBooking.get().getId().equals(bookingId)) {
-            throw new BookingException("You already have a booking for this flight");
+        // Claim the booking row first, then the flight rows - the same lock order cancellation uses
+        Long oldFlightId = booking.getFlight().getId();
+        if (bookingRepository.moveIfUnchanged(bookingId, booking.getVersion(), newFlightId) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Booking.class, bookingId);
         }
 
-        // Release seat from old flight
-        Flight oldFlight = booking.getFlight();
-        oldFlight.releaseSeat();
-        flightRepository.save(oldFlight);
-
-        // Reserve seat on new flight
-        if (!newFlight.reserveSeat()) {
-            throw new BookingException("Failed to reserve seat on new flight");
-        }
-        flightRepository.save(newFlight);
-
-        // Update booking with new flight
-        booking.setFlight(newFlight);
+        // Move the seat - a full new flight rolls the whole update back
+        int seat = moveSeat(oldFlightId, booking.getSeatNumber(), newFlightId, seatNumber);
         
-        return bookingRepository.save(booking);
+        Booking moved = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException("Booking not found with ID: " + bookingId));
+        moved.setSeatNumber(seat);
+        Booking saved = bookingRepository.save(moved);
+        outboxService.bookingMoved(saved, oldFlightId);
+        bookingStatsService.bookingMoved(oldFlightId, newFlightId, saved.getStatus());
+        return saved;
     }
     
+    @RetryOnConflict
     public Booking updateBookingStatus(Long bookingId, Long userId, BookingStatus newStatus) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with ID: " + bookingId));
@@ -167,19 +293,91 @@ public class BookingService {
         }
 
         // Update the booking status
+        BookingStatus oldStatus = booking.getStatus();
         booking.setStatus(newStatus);
-        
-        return bookingRepository.save(booking);
+
+        Booking saved = bookingRepository.save(booking);
+        outboxService.bookingStatusChanged(saved);
+        bookingStatsService.statusChanged(saved.getFlight().getId(), oldStatus, newStatus);
+        return saved;
     }
     
     // Method for recommendation engine to update booking status without user authentication
+    @RetryOnConflict
     public Booking updateBookingStatusForSystem(Long bookingId, BookingStatus newStatus) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with ID: " + bookingId));
 
         // Update the booking status
+        BookingStatus oldStatus = booking.getStatus();
         booking.setStatus(newStatus);
-        
-        return bookingRepository.save(booking);
+
+        Booking saved = bookingRepository.save(booking);
+        outboxService.bookingStatusChanged(saved);
+        bookingStatsService.statusChanged(saved.getFlight().getId(), oldStatus, newStatus);
+        return saved;
+    }
+
+    // Flight rows are always locked in id order so moves in opposite directions cannot deadlock
+    private int moveSeat(Long fromFlightId, Integer fromSeat, Long toFlightId, Integer toSeat) {
+        if (toFlightId < fromFlightId) {
+            int seat = reserveSeat(toFlightId, toSeat, "No available seats on the new flight");
+            releaseSeat(fromFlightId, fromSeat);
+            return seat;
+        }
+        releaseSeat(fromFlightId, fromSeat);
+        return reserveSeat(toFlightId, toSeat, "No available seats on the new flight");
+    }
+
+    // Atomically takes the requested seat or the next free one, telling a missing flight,
+    // a seat that does not exist and a taken seat apart only once the fast path has failed
+    private int reserveSeat(Long flightId, Integer seatNumber, String soldOutMessage) {
+        if (seatNumber == null) {
+            int seat = seatInventory.reserve(flightId);
+            if (seat != SeatInventory.NO_SEAT) {
+                seatsChanged(flightId, FlightChangedEvent.Change.SEATS_TAKEN);
+                return seat;
+            }
+        } else if (seatInventory.reserve(flightId, seatNumber)) {
+            seatsChanged(flightId, FlightChangedEvent.Change.SEATS_TAKEN);
+            return seatNumber;
+        }
+
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new FlightNotFoundException("Flight not found with ID: " + flightId));
+        if (seatNumber == null) {
+            throw new BookingException(soldOutMessage);
+        }
+        if (seatNumber > flight.getCapacity()) {
+            throw new BookingException("Seat " + seatNumber + " does not exist on this flight");
+        }
+        throw new BookingException("Seat " + seatNumber + " is already taken");
+    }
+
+    // Works out which leg sank a group booking - only runs once the reservation has failed
+    private RuntimeException groupBookingFailure(SortedMap<Long, Integer> legs) {
+        for (Map.Entry<Long, Integer> leg : legs.entrySet()) {
+            Flight flight = flightRepository.findById(leg.getKey()).orElse(null);
+            if (flight == null) {
+                return new FlightNotFoundException("Flight not found with ID: " + leg.getKey());
+            }
+            if (seatInventory.availableSeats(flight) < leg.getValue()) {
+                return new BookingException("Not enough seats available on flight " + leg.getKey());
+            }
+        }
+        return new BookingException("Not enough seats available for this group booking");
+    }
+
+    // Bookings that could not be seated when seat maps were introduced hold no seat to give back
+    private void releaseSeat(Long flightId, Integer seatNumber) {
+        if (seatNumber != null) {
+            seatInventory.release(flightId, seatNumber);
+            seatsChanged(flightId, FlightChangedEvent.Change.SEATS_RELEASED);
+        }
+    }
+
+    // Delivered after commit, so flight caches never reload the pre-change row
+    private void seatsChanged(Long flightId, FlightChangedEvent.Change change) {
+        eventPublisher.publishEvent(new FlightChangedEvent(flightId, change));
     }
 } 
\ No newline at end of file
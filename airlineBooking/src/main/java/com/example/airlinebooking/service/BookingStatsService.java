@@ -0,0 +1,185 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.dto.RouteStats;
+import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.model.BookingStatus;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.FlightBookingStats;
+import com.example.airlinebooking.repository.FlightBookingStatsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Per-flight booking counters in flight_booking_stats. Writes always join the caller's
+// transaction, so the counts move exactly when the bookings they count are committed. Each
+// change is an in-place increment issued as the caller's last statement, which keeps the
+// stats row locked only for the commit. Reads are cached for a second, so any number of
+// dashboards polling every second cost one query per second.
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class BookingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingStatsService.class);
+
+    private static final String INSERT =
+            "INSERT INTO flight_booking_stats (flight_id, origin, destination, departure_time, capacity, " +
+            "confirmed_count, delayed_count, cancelled_count, load_factor, updated_at) VALUES (?, ?, ?, ?, ?, 0, 0, 0, 0, ?)";
+    // Counts a flight's row from its bookings - for flights written straight to the table, such
+    // as seed and load test data, or any from before the table existed. A row another
+    // transaction inserted first is left alone.
+    private static final String COUNT_FROM_BOOKINGS =
+            "INSERT INTO flight_booking_stats (flight_id, origin, destination, departure_time, capacity, " +
+            "confirmed_count, delayed_count, cancelled_count, load_factor, updated_at) " +
+            "SELECT f.id, f.origin, f.destination, f.departure_time, f.capacity, " +
+            "COUNT(CASE WHEN b.status = 'CONFIRMED' THEN 1 END), COUNT(CASE WHEN b.status = 'DELAYED' THEN 1 END), " +
+            "COUNT(CASE WHEN b.status = 'CANCELLED' THEN 1 END), " +
+            "COUNT(CASE WHEN b.status IN ('CONFIRMED', 'DELAYED') THEN 1 END) / (1.0 * f.capacity), CURRENT_TIMESTAMP " +
+            "FROM flights f LEFT JOIN bookings b ON b.flight_id = f.id ";
+    private static final String GROUP_BY_FLIGHT =
+            "GROUP BY f.id, f.origin, f.destination, f.departure_time, f.capacity ON CONFLICT DO NOTHING";
+    private static final String INSERT_MISSING = COUNT_FROM_BOOKINGS +
+            "WHERE NOT EXISTS (SELECT 1 FROM flight_booking_stats s WHERE s.flight_id = f.id) " + GROUP_BY_FLIGHT;
+    private static final String INSERT_FLIGHT = COUNT_FROM_BOOKINGS + "WHERE f.id = ? " + GROUP_BY_FLIGHT;
+
+    private final FlightBookingStatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Integer, List<FlightBookingStats>> fullest;
+    private final Cache<String, List<RouteStats>> routes;
+
+    public BookingStatsService(FlightBookingStatsRepository statsRepository, JdbcTemplate jdbcTemplate,
+                               @Value("${stats.cache-ms:1000}") long cacheMillis) {
+        this.statsRepository = statsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.fullest = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheMillis))
+                .maximumSize(100)
+                .build();
+        this.routes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheMillis))
+                .maximumSize(1)
+                .build();
+    }
+
+    public void flightCreated(Flight flight) {
+        flightsCreated(List.of(flight));
+    }
+
+    public void flightsCreated(List<Flight> flights) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, flights.stream()
+                .map(flight -> new Object[]{flight.getId(), flight.getOrigin(), flight.getDestination(),
+                        Timestamp.valueOf(flight.getDepartureTime()), flight.getCapacity(), now})
+                .toList());
+    }
+
+    public void flightUpdated(Flight flight) {
+        statsRepository.updateFlight(flight.getId(), flight.getOrigin(), flight.getDestination(),
+                flight.getDepartureTime(), flight.getCapacity(), LocalDateTime.now());
+    }
+
+    public void bookingsCreated(Long flightId, int count) {
+        adjust(flightId, BookingStatus.CONFIRMED, count);
+    }
+
+    public void statusChanged(Long flightId, BookingStatus from, BookingStatus to) {
+        if (from == to) {
+            return;
+        }
+        long confirmed = delta(BookingStatus.CONFIRMED, from, to);
+        long delayed = delta(BookingStatus.DELAYED, from, to);
+        long cancelled = delta(BookingStatus.CANCELLED, from, to);
+        apply(flightId, confirmed, delayed, cancelled);
+    }
+
+    // A deleted booking no longer counts under any status
+    public void bookingDeleted(Long flightId, BookingStatus status) {
+        adjust(flightId, status, -1);
+    }
+
+    // Lower flight id first, the order seats are locked in, so opposite moves cannot deadlock
+    public void bookingMoved(Long fromFlightId, Long toFlightId, BookingStatus status) {
+        if (fromFlightId < toFlightId) {
+            adjust(fromFlightId, status, -1);
+            adjust(toFlightId, status, 1);
+        } else {
+            adjust(toFlightId, status, 1);
+            adjust(fromFlightId, status, -1);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public FlightBookingStats getFlight(Long flightId) {
+        return statsRepository.findById(flightId)
+                .orElseThrow(() -> new FlightNotFoundException("No booking statistics for flight " + flightId));
+    }
+
+    // Upcoming flights by load factor, fullest first
+    @Transactional(readOnly = true)
+    public List<FlightBookingStats> getFullest(int limit) {
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+        return fullest.get(limit, key -> statsRepository.findFullest(LocalDateTime.now(), Limit.of(limit)));
+    }
+
+    // Upcoming flights summed per route; origin and destination narrow the result when given
+    @Transactional(readOnly = true)
+    public List<RouteStats> getRoutes(String origin, String destination) {
+        List<RouteStats> all = routes.get("all", key -> statsRepository.findRoutes(LocalDateTime.now()));
+        return all.stream()
+                .filter(route -> origin == null || route.getOrigin().equalsIgnoreCase(origin))
+                .filter(route -> destination == null || route.getDestination().equalsIgnoreCase(destination))
+                .toList();
+    }
+
+    // After every startup runner, so seed and load test data are covered too. Live traffic may
+    // insert some of the same rows meanwhile; those are skipped.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void insertMissing() {
+        int inserted = jdbcTemplate.update(INSERT_MISSING);
+        if (inserted > 0) {
+            logger.info("Counted booking statistics for {} flights", inserted);
+        }
+    }
+
+    private void adjust(Long flightId, BookingStatus status, long count) {
+        long confirmed = status == BookingStatus.CONFIRMED ? count : 0;
+        long delayed = status == BookingStatus.DELAYED ? count : 0;
+        long cancelled = status == BookingStatus.CANCELLED ? count : 0;
+        apply(flightId, confirmed, delayed, cancelled);
+    }
+
+    // A flight insertMissing has not reached yet has no row to add to. It is counted from its
+    // bookings instead, which already include the caller's change. If another transaction
+    // inserted the row first, that count cannot see this change, so it is added on top.
+    private void apply(Long flightId, long confirmed, long delayed, long cancelled) {
+        LocalDateTime now = LocalDateTime.now();
+        if (statsRepository.adjust(flightId, confirmed, delayed, cancelled, now) > 0) {
+            return;
+        }
+        // Booking writes still pending in the session must reach the table to be counted
+        statsRepository.flush();
+        if (jdbcTemplate.update(INSERT_FLIGHT, flightId) == 0) {
+            statsRepository.adjust(flightId, confirmed, delayed, cancelled, now);
+        }
+    }
+
+    private static long delta(BookingStatus counted, BookingStatus from, BookingStatus to) {
+        return (to == counted ? 1 : 0) - (from == counted ? 1 : 0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.CatalogCounter;
+import com.example.airlinebooking.repository.CatalogCounterRepository;
+import com.example.airlinebooking.repository.FlightRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version of everything the flight read endpoints return, used as their ETag. It comes from
+// the shared catalog_counters row, so every instance - and every restart - hands out the same
+// tag for the same catalog, and an unchanged catalog keeps its tag however long a client polls.
+//
+// FlightCache reports each committed change here once the stale entries are gone. Changes are
+// added to the shared counter on the next refresh; until then this instance marks its tags
+// with its own id and change count, so no client is told its copy is still current. The next
+// departure is part of the tag as well, because a flight departing changes the bookable list
+// without any write.
+@Component
+public class CatalogVersion {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersion.class);
+
+    static final String COUNTER = "flights";
+
+    private final CatalogCounterRepository counterRepository;
+    private final FlightRepository flightRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    // Changes committed here that the shared counter does not include yet
+    private final AtomicLong pending = new AtomicLong();
+    private volatile Shared shared;
+
+    public CatalogVersion(CatalogCounterRepository counterRepository, FlightRepository flightRepository,
+                          TransactionTemplate transactionTemplate) {
+        this.counterRepository = counterRepository;
+        this.flightRepository = flightRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void increment() {
+        pending.incrementAndGet();
+    }
+
+    // Strong validator - equal tags mean byte-identical responses
+    public String etag() {
+        Shared current = shared;
+        if (current == null) {
+            refresh(() -> { });
+            current = shared;
+        }
+        String tag = current.version + "-" + current.nextDeparture;
+        long local = pending.get();
+        return "\"" + (local == 0 ? tag : tag + "-" + instance + "." + local) + "\"";
+    }
+
+    // Adds this instance's changes to the shared counter and reads it back. When the counter
+    // moved further, another instance changed the catalog and onRemoteChange runs - before the
+    // new version is handed out, so it is never served with entries cached before that change.
+    public synchronized void refresh(Runnable onRemoteChange) {
+        ensureCounter();
+        long changes = pending.get();
+        Shared previous = shared;
+        Shared current = transactionTemplate.execute(status -> {
+            if (changes > 0) {
+                counterRepository.increment(COUNTER, LocalDateTime.now());
+            }
+            LocalDateTime next = flightRepository.findNextDeparture(LocalDateTime.now());
+            return new Shared(counterRepository.version(COUNTER), next == null ? 0 : next.toEpochSecond(ZoneOffset.UTC));
+        });
+        if (previous != null && current.version != previous.version + (changes > 0 ? 1 : 0)) {
+            onRemoteChange.run();
+        }
+        shared = current;
+        pending.addAndGet(-changes);
+    }
+
+    // Creates the counter row on first use; another instance may win that race
+    private void ensureCounter() {
+        if (shared != null) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!counterRepository.existsById(COUNTER)) {
+                    counterRepository.save(new CatalogCounter(COUNTER));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Catalog counter was created concurrently");
+        }
+    }
+
+    private record Shared(long version, long nextDeparture) {
+    }
+}
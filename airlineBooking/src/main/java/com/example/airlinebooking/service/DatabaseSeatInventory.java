@@ -0,0 +1,215 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.SeatMap;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Every seat change locks the flights row, so the seat map and the free seat count are
+// always written together in the booking's transaction
+@Service
+@Transactional
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseSeatInventory implements SeatInventory, SmartLifecycle {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final SeatMapReconciler seatMapReconciler;
+    private volatile boolean running;
+
+    public DatabaseSeatInventory(SeatMapReconciler seatMapReconciler) {
+        this.seatMapReconciler = seatMapReconciler;
+    }
+
+    @Override
+    public int reserve(Long flightId) {
+        Flight flight = lockFlight(flightId);
+        if (flight == null) {
+            return NO_SEAT;
+        }
+        SeatMap seatMap = SeatMap.of(flight);
+        int seatNumber = seatMap.takeNextFree();
+        if (seatNumber != NO_SEAT) {
+            store(flight, seatMap);
+        }
+        return seatNumber;
+    }
+
+    @Override
+    public List<Integer> reserveSeats(Long flightId, int count) {
+        Flight flight = lockFlight(flightId);
+        if (flight == null) {
+            return List.of();
+        }
+        SeatMap seatMap = SeatMap.of(flight);
+        if (seatMap.availableSeats() < count) {
+            return List.of();
+        }
+        List<Integer> seatNumbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seatNumbers.add(seatMap.takeNextFree());
+        }
+        store(flight, seatMap);
+        return seatNumbers;
+    }
+
+    @Override
+    public Map<Long, List<Integer>> reserveGroup(SortedMap<Long, Integer> seatsByFlight) {
+        // One statement locks every leg, in id order so overlapping groups cannot deadlock
+        List<Flight> flights = entityManager.createQuery(
+                        "SELECT f FROM Flight f WHERE f.id IN :ids ORDER BY f.id", Flight.class)
+                .setParameter("ids", seatsByFlight.keySet())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (flights.size() != seatsByFlight.size()) {
+            return Map.of();
+        }
+
+        Map<Long, List<Integer>> seatsTaken = new TreeMap<>();
+        Map<Flight, SeatMap> seatMaps = new LinkedHashMap<>();
+        for (Flight flight : flights) {
+            SeatMap seatMap = SeatMap.of(flight);
+            int count = seatsByFlight.get(flight.getId());
+            if (seatMap.availableSeats() < count) {
+                return Map.of();
+            }
+            List<Integer> seatNumbers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                seatNumbers.add(seatMap.takeNextFree());
+            }
+            seatsTaken.put(flight.getId(), seatNumbers);
+            seatMaps.put(flight, seatMap);
+        }
+        // Nothing is written unless every leg fits
+        seatMaps.forEach(this::store);
+        return seatsTaken;
+    }
+
+    @Override
+    public boolean reserve(Long flightId, int seatNumber) {
+        Flight flight = lockFlight(flightId);
+        if (flight == null) {
+            return false;
+        }
+        SeatMap seatMap = SeatMap.of(flight);
+        if (!seatMap.take(seatNumber)) {
+            return false;
+        }
+        store(flight, seatMap);
+        return true;
+    }
+
+    @Override
+    public boolean areTaken(Long flightId, List<Integer> seatNumbers) {
+        Flight flight = lockFlight(flightId);
+        if (flight == null) {
+            return false;
+        }
+        SeatMap seatMap = SeatMap.of(flight);
+        return seatNumbers.stream().allMatch(seatMap::isTaken);
+    }
+
+    @Override
+    public void release(Long flightId, int seatNumber) {
+        Flight flight = lockFlight(flightId);
+        if (flight == null) {
+            return;
+        }
+        SeatMap seatMap = SeatMap.of(flight);
+        if (seatMap.release(seatNumber)) {
+            store(flight, seatMap);
+        }
+    }
+
+    @Override
+    public void releaseSeats(Long flightId, List<Integer> seatNumbers) {
+        Flight flight = lockFlight(flightId);
+        if (flight == null) {
+            return;
+        }
+        SeatMap seatMap = SeatMap.of(flight);
+        seatNumbers.forEach(seatMap::release);
+        store(flight, seatMap);
+    }
+
+    @Override
+    public int availableSeats(Long flightId, int storedSeats) {
+        return storedSeats;
+    }
+
+    @Override
+    public SeatMap seatMap(Flight flight) {
+        return SeatMap.of(flight);
+    }
+
+    // A refused change writes nothing, so it must not doom the caller's transaction - a bulk
+    // import rejects the row and commits the rest of its chunk
+    @Override
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public int changeCapacity(Flight flight, int newCapacity) {
+        SeatMap seatMap = SeatMap.of(flight);
+        if (newCapacity < seatMap.takenCount()) {
+            throw new IllegalArgumentException("Cannot reduce capacity below number of booked seats");
+        }
+        if (!seatMap.resize(newCapacity)) {
+            throw new IllegalArgumentException("Cannot remove seats that are still booked");
+        }
+        // The version check on the flight catches a booking that lands in between
+        flight.setSeatMap(seatMap.toBytes());
+        return seatMap.availableSeats();
+    }
+
+    @Override
+    public void flush() {
+        // Nothing is buffered - the flights table is always current
+    }
+
+    // Outside the class-level transaction, so each flight's lock is released as soon as it is checked
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void start() {
+        seatMapReconciler.repair();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Repair before the web server takes traffic
+        return 0;
+    }
+
+    // A flight already loaded in this session is version-checked while locking, so stale
+    // seat maps surface as a retryable conflict rather than a double allocation
+    private Flight lockFlight(Long flightId) {
+        return entityManager.find(Flight.class, flightId, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    private void store(Flight flight, SeatMap seatMap) {
+        flight.setSeatMap(seatMap.toBytes());
+        flight.setAvailableSeats(seatMap.availableSeats());
+    }
+}
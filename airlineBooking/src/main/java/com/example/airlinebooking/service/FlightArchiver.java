@@ -0,0 +1,225 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.ArchiveWatermark;
+import com.example.airlinebooking.repository.ArchiveWatermarkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Moves flights that departed more than archive.after-days ago, with their bookings, into
+// flights_archive and bookings_archive, so the hot tables only hold what can still change.
+// Each batch is one short transaction of set-based copies and deletes keyed by flight id;
+// batches are paced apart and give up on a lock they cannot get quickly, so bookings never
+// queue behind the archiver. Scans resume from the watermark instead of walking the index
+// over rows that were just deleted.
+@Service
+public class FlightArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightArchiver.class);
+
+    static final String WATERMARK = "flights";
+
+    private static final String SELECT_BATCH =
+            "SELECT id, departure_time FROM flights WHERE departure_time >= :from AND departure_time < :cutoff " +
+            "ORDER BY departure_time, id LIMIT :limit";
+    private static final String ARCHIVE_FLIGHTS =
+            "INSERT INTO flights_archive (id, origin, destination, departure_time, arrival_time, capacity, " +
+            "available_seats, archived_at) SELECT id, origin, destination, departure_time, arrival_time, capacity, " +
+            "available_seats, :now FROM flights WHERE id IN (:ids)";
+    private static final String ARCHIVE_BOOKINGS =
+            "INSERT INTO bookings_archive (id, user_id, flight_id, status, seat_number, archived_at) " +
+            "SELECT id, user_id, flight_id, status, seat_number, :now FROM bookings WHERE flight_id IN (:ids)";
+    private static final String DELETE_BOOKINGS = "DELETE FROM bookings WHERE flight_id IN (:ids)";
+    private static final String DELETE_STATS = "DELETE FROM flight_booking_stats WHERE flight_id IN (:ids)";
+    private static final String DELETE_FLIGHTS = "DELETE FROM flights WHERE id IN (:ids)";
+
+    // Lower bound of a full scan - older than any flight
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ArchiveWatermarkRepository watermarkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatInventory seatInventory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter archivedFlights;
+    private final Counter archivedBookings;
+    private final boolean enabled;
+    private final int afterDays;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMillis;
+    private final long lockTimeoutMillis;
+    private final long fullScanIntervalMillis;
+
+    private volatile Boolean postgres;
+    private volatile long lastFullScan;
+
+    public FlightArchiver(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                          ArchiveWatermarkRepository watermarkRepository, TransactionTemplate transactionTemplate,
+                          SeatInventory seatInventory, ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${archive.enabled:true}") boolean enabled,
+                          @Value("${archive.after-days:30}") int afterDays,
+                          @Value("${archive.batch-size:200}") int batchSize,
+                          @Value("${archive.max-batches-per-run:50}") int maxBatches,
+                          @Value("${archive.pause-ms:200}") long pauseMillis,
+                          @Value("${archive.lock-timeout-ms:2000}") long lockTimeoutMillis,
+                          @Value("${archive.full-scan-interval-ms:86400000}") long fullScanIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.watermarkRepository = watermarkRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.seatInventory = seatInventory;
+        this.eventPublisher = eventPublisher;
+        this.archivedFlights = meterRegistry.counter("archive.flights");
+        this.archivedBookings = meterRegistry.counter("archive.bookings");
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMillis = pauseMillis;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.fullScanIntervalMillis = fullScanIntervalMillis;
+        // The first run after startup starts from the watermark
+        this.lastFullScan = System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:600000}", initialDelayString = "${archive.interval-ms:600000}")
+    public void run() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    // Archives up to max-batches-per-run batches; returns how many flights were moved
+    public int archive() {
+        ensureWatermark();
+        // Flights backfilled with an old departure sit below the watermark; a periodic
+        // scan from the beginning picks them up
+        boolean fullScan = System.currentTimeMillis() - lastFullScan > fullScanIntervalMillis;
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            // Pending write-behind seat counts belong in the copy
+            seatInventory.flush();
+            List<Long> flightIds;
+            try {
+                flightIds = archiveBatch(cutoff, fullScan);
+            } catch (DataAccessException e) {
+                // Lock timeout, or a booking that slipped onto a departed flight - retried next run
+                logger.warn("Archiving stopped after {} flights, will retry: {}", total, e.getMessage());
+                return total;
+            }
+            for (Long flightId : flightIds) {
+                seatInventory.forget(flightId);
+                eventPublisher.publishEvent(new FlightChangedEvent(flightId, FlightChangedEvent.Change.ARCHIVED));
+            }
+            total += flightIds.size();
+            if (flightIds.size() < batchSize) {
+                break;
+            }
+            pause();
+        }
+        if (fullScan) {
+            lastFullScan = System.currentTimeMillis();
+        }
+        if (total > 0) {
+            logger.info("Archived {} flights departed before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private List<Long> archiveBatch(LocalDateTime cutoff, boolean fullScan) {
+        return transactionTemplate.execute(status -> {
+            if (isPostgres()) {
+                // Applies to every lock below, including the watermark row
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMillis);
+            }
+            ArchiveWatermark watermark = watermarkRepository.lock(WATERMARK).orElseThrow();
+            LocalDateTime from = fullScan || watermark.getArchivedThrough() == null
+                    ? BEGINNING
+                    : watermark.getArchivedThrough();
+
+            List<Long> flightIds = new ArrayList<>();
+            LocalDateTime last = null;
+            MapSqlParameterSource range = new MapSqlParameterSource()
+                    .addValue("from", Timestamp.valueOf(from))
+                    .addValue("cutoff", Timestamp.valueOf(cutoff))
+                    .addValue("limit", batchSize);
+            for (Map<String, Object> row : namedJdbcTemplate.queryForList(SELECT_BATCH, range)) {
+                flightIds.add(((Number) row.get("id")).longValue());
+                last = ((Timestamp) row.get("departure_time")).toLocalDateTime();
+            }
+            if (flightIds.isEmpty()) {
+                return flightIds;
+            }
+
+            MapSqlParameterSource batch = new MapSqlParameterSource()
+                    .addValue("ids", flightIds)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            int flights = namedJdbcTemplate.update(ARCHIVE_FLIGHTS, batch);
+            int bookings = namedJdbcTemplate.update(ARCHIVE_BOOKINGS, batch);
+            namedJdbcTemplate.update(DELETE_BOOKINGS, batch);
+            namedJdbcTemplate.update(DELETE_STATS, batch);
+            // Fails on the foreign key if a booking arrived since the copy, rolling the batch back
+            namedJdbcTemplate.update(DELETE_FLIGHTS, batch);
+
+            if (watermark.getArchivedThrough() == null || last.isAfter(watermark.getArchivedThrough())) {
+                watermark.setArchivedThrough(last);
+            }
+            watermark.setUpdatedAt(LocalDateTime.now());
+            archivedFlights.increment(flights);
+            archivedBookings.increment(bookings);
+            return flightIds;
+        });
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equals(database);
+        }
+        return postgres;
+    }
+
+    // Creates the watermark row on first run; another instance may win that race
+    private void ensureWatermark() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!watermarkRepository.existsById(WATERMARK)) {
+                    watermarkRepository.save(new ArchiveWatermark(WATERMARK));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Archive watermark was created concurrently");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.dto.FlightSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// In-process flight catalog cache. Flights are cached one entry per id; the catalog and
+// bookable listings only cache the ids, so a change to one flight never has to rebuild
+// a list. Entries are dropped after commit by FlightChangedEvent, all at once when another
+// instance changed the catalog, and in any case expire after the TTL, which bounds how stale
+// a read that raced a commit can be.
+@Component
+public class FlightCache {
+
+    static final String ALL = "all";
+    static final String BOOKABLE = "bookable";
+
+    private final Cache<Long, FlightSummary> flights;
+    private final Cache<String, List<Long>> listings;
+    private final CatalogVersion catalogVersion;
+
+    public FlightCache(MeterRegistry meterRegistry,
+                       CatalogVersion catalogVersion,
+                       @Value("${flights.cache.ttl-ms:30000}") long ttlMillis,
+                       @Value("${flights.cache.max-size:10000}") long maxSize) {
+        this.catalogVersion = catalogVersion;
+        this.flights = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        this.listings = Caffeine.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size per cache
+        CaffeineCacheMetrics.monitor(meterRegistry, flights, "flights");
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "flight-listings");
+    }
+
+    // Null when the loader finds nothing - misses for unknown ids are not cached
+    public FlightSummary get(Long flightId, Function<Long, FlightSummary> loader) {
+        return flights.get(flightId, loader);
+    }
+
+    // Missing entries are loaded in one call; ids the loader does not return are skipped
+    public Map<Long, FlightSummary> getAll(Collection<Long> flightIds,
+                                           Function<Collection<? extends Long>, Map<Long, FlightSummary>> loader) {
+        return flights.getAll(flightIds, loader::apply);
+    }
+
+    // A listing is loaded together with its flights, which are cached along the way
+    public List<Long> listing(String name, Supplier<List<FlightSummary>> loader) {
+        return listings.get(name, key -> {
+            List<FlightSummary> loaded = loader.get();
+            loaded.forEach(flight -> flights.put(flight.getId(), flight));
+            return loaded.stream().map(FlightSummary::getId).toList();
+        });
+    }
+
+    // fallbackExecution covers changes made outside a transaction, such as hold expiry
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        flights.invalidate(event.getFlightId());
+        switch (event.getChange()) {
+            case SEATS_TAKEN -> {
+                // Sold-out flights are filtered on read, so the bookable list stays valid
+            }
+            case SEATS_RELEASED, UPDATED -> listings.invalidate(BOOKABLE);
+            case CREATED, ARCHIVED -> listings.invalidateAll();
+        }
+        // Only now, or a client could pick up the new ETag together with the stale entry
+        catalogVersion.increment();
+    }
+
+    // Shares this instance's changes through the catalog version and picks up other instances'.
+    // Their changes never reached this cache, so it starts over.
+    @Scheduled(fixedDelayString = "${flights.version.refresh-ms:1000}")
+    public void syncVersion() {
+        catalogVersion.refresh(() -> {
+            flights.invalidateAll();
+            listings.invalidateAll();
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.airlinebooking.service;
+
+// Published whenever a flight or its seat count changes, so read caches can drop exactly
+// what the change made stale. Listeners run after the surrounding transaction commits.
+public class FlightChangedEvent {
+
+    public enum Change {
+        // Fewer free seats - the flight can only drop out of the bookable list
+        SEATS_TAKEN,
+        // More free seats - a sold-out flight may become bookable again
+        SEATS_RELEASED,
+        UPDATED,
+        CREATED,
+        // Moved to the archive tables - gone from every listing
+        ARCHIVED
+    }
+
+    private final Long flightId;
+    private final Change change;
+
+    public FlightChangedEvent(Long flightId, Change change) {
+        this.flightId = flightId;
+        this.change = change;
+    }
+
+    public Long getFlightId() {
+        return flightId;
+    }
+
+    public Change getChange() {
+        return change;
+    }
+}
@@ -1,74 +1,491 @@
 package com.example.airlinebooking.service;
 
+import com.example.airlinebooking.dto.FlightImportResult;
+import com.example.airlinebooking.dto.FlightSearchRequest;
+import com.example.airlinebooking.dto.FlightSearchResponse;
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.dto.SeatMapResponse;
 import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.SeatMap;
 import com.example.airlinebooking.repository.FlightRepository;
+import com.example.airlinebooking.repository.FlightSpecifications;
 import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.util.CsvLine;
+import com.example.airlinebooking.util.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class FlightService {
+    // Rows per explicit flush of a streamed export
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    // Columns an imported CSV must have, in any order
+    private static final List<String> CSV_COLUMNS = List.of("origin", "destination", "departureTime", "arrivalTime", "capacity");
+
     private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+    private final FlightCache flightCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final BookingStatsService bookingStatsService;
+    private final int importChunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public FlightService(FlightRepository flightRepository) {
+    public FlightService(FlightRepository flightRepository, SeatInventory seatInventory,
+                         FlightCache flightCache, ApplicationEventPublisher eventPublisher,
+                         ObjectMapper objectMapper, Validator validator, TransactionTemplate transactionTemplate,
+                         OutboxService outboxService, BookingStatsService bookingStatsService,
+                         @Value("${flights.import.chunk-size:1000}") int importChunkSize) {
         this.flightRepository = flightRepository;
+        this.seatInventory = seatInventory;
+        this.flightCache = flightCache;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxService = outboxService;
+        this.bookingStatsService = bookingStatsService;
+        this.importChunkSize = importChunkSize;
     }
 
     public Flight createFlight(Flight flight) {
-        // Validate flight data
+        validateSchedule(flight);
+        prepareNewFlight(flight);
+
+        Flight saved = flightRepository.save(flight);
+        outboxService.flightCreated(saved);
+        bookingStatsService.flightCreated(saved);
+        eventPublisher.publishEvent(new FlightChangedEvent(saved.getId(), FlightChangedEvent.Change.CREATED));
+        return saved;
+    }
+
+    @RetryOnConflict
+    public Flight updateFlight(Long id, Flight updatedFlight) {
+        Flight existingFlight = flightRepository.findById(id)
+                .orElseThrow(() -> new FlightNotFoundException("Flight not found"));
+
+        applyChanges(existingFlight, updatedFlight);
+
+        Flight saved = flightRepository.save(existingFlight);
+        outboxService.flightUpdated(saved);
+        bookingStatsService.flightUpdated(saved);
+        eventPublisher.publishEvent(new FlightChangedEvent(id, FlightChangedEvent.Change.UPDATED));
+        return saved;
+    }
+
+    // Loads a schedule feed - CSV with a header row, or one JSON flight per line - without
+    // holding it in memory. Rows are committed in chunks of batched inserts, so a bad row is
+    // reported and skipped rather than failing the whole file. With upsert, a row matching an
+    // existing flight's route and departure time updates that flight instead.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FlightImportResult importFlights(InputStream in, MediaType format, boolean upsert) throws IOException {
+        boolean csv = !MediaType.APPLICATION_NDJSON.isCompatibleWith(format);
+        FlightImportResult result = new FlightImportResult();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> header = null;
+        List<ImportRow> chunk = new ArrayList<>(importChunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && header == null) {
+                header = CsvLine.split(line);
+                if (!header.containsAll(CSV_COLUMNS)) {
+                    throw new IllegalArgumentException("CSV header must name the columns " + String.join(",", CSV_COLUMNS));
+                }
+                continue;
+            }
+            chunk.add(csv ? parseCsvRow(lineNumber, header, line) : parseJsonRow(lineNumber, line));
+            if (chunk.size() == importChunkSize) {
+                importChunk(chunk, upsert, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, upsert, result);
+        }
+        return result;
+    }
+
+    // Cached reads run without a transaction of their own, so a hit never borrows a connection.
+    // Misses are filled from the primary: a replica that has not replayed a change yet would put
+    // the old row back right after the change evicted it, and serve it under the new ETag.
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<FlightSummary> getAllFlights() {
+        List<Long> ids = flightCache.listing(FlightCache.ALL, () -> fromPrimary(flightRepository::findAllSummaries));
+        return withLiveSeats(cachedFlights(ids));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public FlightSummary getFlightById(Long id) {
+        FlightSummary flight = flightCache.get(id, key -> fromPrimary(() -> flightRepository.findSummariesByIdIn(List.of(key))).stream()
+                .findFirst()
+                .orElse(null));
+        if (flight == null) {
+            throw new FlightNotFoundException("Flight not found");
+        }
+        return flight.withAvailableSeats(seatInventory.availableSeats(id, flight.getAvailableSeats()));
+    }
+
+    // Bypasses the cache, for callers that must see a change another instance just committed
+    public FlightSummary getCurrentFlight(Long id) {
+        FlightSummary flight = flightRepository.findSummariesByIdIn(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new FlightNotFoundException("Flight not found"));
+        return flight.withAvailableSeats(seatInventory.availableSeats(id, flight.getAvailableSeats()));
+    }
+
+    // Not read-only: the in-memory inventory may load the flight's seats here, and those must
+    // come from the primary rather than a replica that is behind
+    @Transactional
+    public SeatMapResponse getSeatMap(Long id) {
+        Flight flight = flightRepository.findById(id)
+                .orElseThrow(() -> new FlightNotFoundException("Flight not found"));
+        SeatMap seatMap = seatInventory.seatMap(flight);
+        return new SeatMapResponse(flight.getId(), seatMap.capacity(), seatMap.availableSeats(), seatMap.takenSeats());
+    }
+
+    // One page of matching flights in departure order. Fetches one row more than the limit
+    // to tell whether another page follows, and never counts the full result. With minSeats,
+    // rows the live inventory shows as sold out since the last flush are skipped and the next
+    // rows fetched in their place, so a page is only short when it is the last one.
+    @Transactional(readOnly = true)
+    public FlightSearchResponse searchFlights(FlightSearchRequest request) {
+        List<Specification<Flight>> filters = new ArrayList<>();
+        if (request.getOrigin() != null && !request.getOrigin().isBlank()) {
+            filters.add(FlightSpecifications.origin(request.getOrigin()));
+        }
+        if (request.getDestination() != null && !request.getDestination().isBlank()) {
+            filters.add(FlightSpecifications.destination(request.getDestination()));
+        }
+        if (request.getDepartureFrom() != null) {
+            filters.add(FlightSpecifications.departsAtOrAfter(request.getDepartureFrom().atStartOfDay()));
+        }
+        if (request.getDepartureTo() != null) {
+            filters.add(FlightSpecifications.departsBefore(request.getDepartureTo().plusDays(1).atStartOfDay()));
+        }
+        if (request.getMinSeats() != null) {
+            filters.add(FlightSpecifications.hasAtLeastSeats(request.getMinSeats()));
+        }
+        Specification<Flight> matching = Specification.allOf(filters);
+
+        int limit = request.getLimit();
+        int minSeats = request.getMinSeats() != null ? request.getMinSeats() : 0;
+        KeysetCursor position = KeysetCursor.decode(request.getCursor());
+        List<FlightSummary> page = new ArrayList<>(limit);
+        while (true) {
+            Specification<Flight> spec = position == null
+                    ? matching
+                    : matching.and(FlightSpecifications.after(position.getTime(), position.getId()));
+            List<FlightSummary> rows = flightRepository.findSummaries(spec, limit + 1);
+            for (FlightSummary row : rows) {
+                if (page.size() == limit) {
+                    // A further row matches - the next page starts after the last one listed
+                    FlightSummary last = page.get(limit - 1);
+                    return new FlightSearchResponse(page, new KeysetCursor(last.getDepartureTime(), last.getId()).encode());
+                }
+                FlightSummary flight = row.withAvailableSeats(seatInventory.availableSeats(row.getId(), row.getAvailableSeats()));
+                if (flight.getAvailableSeats() >= minSeats) {
+                    page.add(flight);
+                }
+                position = new KeysetCursor(row.getDepartureTime(), row.getId());
+            }
+            if (rows.size() <= limit) {
+                return new FlightSearchResponse(page, null);
+            }
+        }
+    }
+
+    // Filtering happens in the database, so the cost follows the number of bookable flights
+    // rather than the whole flight history
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<FlightSummary> getAvailableFlights() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = flightCache.listing(FlightCache.BOOKABLE, () -> fromPrimary(() -> flightRepository.findBookable(now)));
+        // A cached listing may include flights that departed or sold out since it was loaded
+        return withLiveSeats(cachedFlights(ids)).stream()
+                .filter(flight -> flight.getDepartureTime().isAfter(now))
+                .filter(flight -> flight.getAvailableSeats() > 0)
+                .toList();
+    }
+
+    // Writes every flight as one line of JSON, straight from a database cursor. Each row is
+    // detached once read, so memory use stays flat however large the catalog is, and the
+    // client receives the first flights while the rest are still being read.
+    @Transactional(readOnly = true)
+    public void exportFlights(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (Stream<Flight> flights = flightRepository.streamAll()) {
+            Iterator<Flight> iterator = flights.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                Flight flight = iterator.next();
+                entityManager.detach(flight);
+                applyLiveSeats(flight);
+                generator.writeObject(flight);
+                generator.writeRaw('\n');
+                if (++written % EXPORT_FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.flush();
+    }
+
+    // Listed flights in listing order; entries evicted since the listing was cached are
+    // reloaded in one query
+    private List<FlightSummary> cachedFlights(List<Long> ids) {
+        Map<Long, FlightSummary> flights = flightCache.getAll(ids, missing -> fromPrimary(() -> flightRepository.findSummariesByIdIn(missing))
+                .stream()
+                .collect(Collectors.toMap(FlightSummary::getId, Function.identity())));
+        return ids.stream()
+                .map(flights::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // A read-write transaction, which the replica routing keeps on the primary
+    private <T> T fromPrimary(Supplier<T> read) {
+        return transactionTemplate.execute(status -> read.get());
+    }
+
+    private List<FlightSummary> withLiveSeats(List<FlightSummary> flights) {
+        return flights.stream()
+                .map(flight -> flight.withAvailableSeats(seatInventory.availableSeats(flight.getId(), flight.getAvailableSeats())))
+                .toList();
+    }
+
+    // The flights table can trail the inventory by one flush; read-only sessions never write this back
+    private void applyLiveSeats(Flight flight) {
+        flight.setAvailableSeats(seatInventory.availableSeats(flight));
+    }
+
+    private void validateSchedule(Flight flight) {
         if (flight.getCapacity() < 1) {
             throw new IllegalArgumentException("Capacity must be at least 1");
         }
-        
+
+        if (flight.getCapacity() > SeatMap.MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity cannot exceed " + SeatMap.MAX_CAPACITY);
+        }
+
         if (flight.getDepartureTime().isAfter(flight.getArrivalTime())) {
             throw new IllegalArgumentException("Departure time must be before arrival time");
         }
-        
-        // Set initial available seats equal to capacity
+    }
+
+    private void prepareNewFlight(Flight flight) {
+        // Version is owned by the persistence layer, never by the client
+        flight.setVersion(null);
+
+        // Set initial available seats equal to capacity, all of them free
         flight.setAvailableSeats(flight.getCapacity());
-        
-        return flightRepository.save(flight);
+        flight.setSeatMap(SeatMap.empty(flight.getCapacity()).toBytes());
     }
 
-    public Flight updateFlight(Long id, Flight updatedFlight) {
-        Flight existingFlight = flightRepository.findById(id)
-                .orElseThrow(() -> new FlightNotFoundException("Flight not found"));
-        
-        // Validate capacity changes
-        if (updatedFlight.getCapacity() < existingFlight.getCapacity() - existingFlight.getAvailableSeats()) {
-            throw new IllegalArgumentException("Cannot reduce capacity below number of booked seats");
-        }
-        
+    private void applyChanges(Flight existingFlight, Flight updatedFlight) {
+        // Validate and apply capacity changes against the live seat count
+        int availableSeats = seatInventory.changeCapacity(existingFlight, updatedFlight.getCapacity());
+
         // Update fields
         existingFlight.setOrigin(updatedFlight.getOrigin());
         existingFlight.setDestination(updatedFlight.getDestination());
         existingFlight.setDepartureTime(updatedFlight.getDepartureTime());
         existingFlight.setArrivalTime(updatedFlight.getArrivalTime());
-        
-        // Handle capacity changes
-        int capacityDifference = updatedFlight.getCapacity() - existingFlight.getCapacity();
+
         existingFlight.setCapacity(updatedFlight.getCapacity());
-        existingFlight.setAvailableSeats(existingFlight.getAvailableSeats() + capacityDifference);
-        
-        return flightRepository.save(existingFlight);
+        existingFlight.setAvailableSeats(availableSeats);
     }
 
-    public List<Flight> getAllFlights() {
-        return flightRepository.findAll();
+    // One line of the feed: a flight to validate, or the reason it could not be read
+    private record ImportRow(long line, Flight flight, String error) {
     }
 
-    public Flight getFlightById(Long id) {
-        return flightRepository.findById(id)
-                .orElseThrow(() -> new FlightNotFoundException("Flight not found"));
+    private ImportRow parseCsvRow(long line, List<String> header, String text) {
+        Map<String, String> values = new HashMap<>();
+        try {
+            List<String> fields = CsvLine.split(text);
+            if (fields.size() != header.size()) {
+                return new ImportRow(line, null, "Expected " + header.size() + " fields but found " + fields.size());
+            }
+            for (int i = 0; i < header.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            Flight flight = new Flight();
+            flight.setOrigin(values.get("origin"));
+            flight.setDestination(values.get("destination"));
+            flight.setDepartureTime(LocalDateTime.parse(values.get("departureTime")));
+            flight.setArrivalTime(LocalDateTime.parse(values.get("arrivalTime")));
+            flight.setCapacity(Integer.parseInt(values.get("capacity")));
+            return new ImportRow(line, flight, null);
+        } catch (NumberFormatException e) {
+            return new ImportRow(line, null, "Invalid capacity '" + values.get("capacity") + "'");
+        } catch (DateTimeParseException e) {
+            return new ImportRow(line, null, "Invalid date-time '" + e.getParsedString() + "'");
+        } catch (IllegalArgumentException e) {
+            return new ImportRow(line, null, e.getMessage());
+        }
+    }
+
+    private ImportRow parseJsonRow(long line, String text) {
+        try {
+            Flight flight = objectMapper.readValue(text, Flight.class);
+            // Ids are always assigned here - a client id would turn the insert into a merge
+            flight.setId(null);
+            return new ImportRow(line, flight, null);
+        } catch (JsonProcessingException e) {
+            return new ImportRow(line, null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // Same checks as a single createFlight; null when the row is valid
+    private String validateRow(Flight flight) {
+        Set<ConstraintViolation<Flight>> violations = validator.validate(flight);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            validateSchedule(flight);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    // One transaction per chunk. Inserts go through saveAllInBatches, which sends them as JDBC
+    // batches with ids from the pooled sequence. Counts are only added once the chunk commits.
+    private void importChunk(List<ImportRow> chunk, boolean upsert, FlightImportResult result) {
+        FlightImportResult chunkResult = new FlightImportResult();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Flight> existing = upsert ? existingFlights(chunk) : Map.of();
+                Map<String, Integer> pending = new HashMap<>();
+                List<Flight> inserts = new ArrayList<>();
+                Map<Long, Flight> updated = new HashMap<>();
+                for (ImportRow row : chunk) {
+                    String error = row.error() != null ? row.error() : validateRow(row.flight());
+                    if (error != null) {
+                        chunkResult.reject(row.line(), error);
+                        continue;
+                    }
+                    Flight flight = row.flight();
+                    String key = scheduleKey(flight);
+                    Flight current = existing.get(key);
+                    if (current != null) {
+                        try {
+                            applyChanges(current, flight);
+                            updated.put(current.getId(), current);
+                        } catch (IllegalArgumentException e) {
+                            chunkResult.reject(row.line(), e.getMessage());
+                        }
+                        continue;
+                    }
+                    prepareNewFlight(flight);
+                    Integer earlier = upsert ? pending.get(key) : null;
+                    if (earlier != null) {
+                        // Repeated within the chunk - the later row wins, as it would across chunks
+                        inserts.set(earlier, flight);
+                    } else {
+                        pending.put(key, inserts.size());
+                        inserts.add(flight);
+                    }
+                }
+                // Also flushes the updated flights before the session is cleared
+                flightRepository.saveAllInBatches(inserts);
+                inserts.forEach(flight -> eventPublisher.publishEvent(
+                        new FlightChangedEvent(flight.getId(), FlightChangedEvent.Change.CREATED)));
+                updated.keySet().forEach(id -> eventPublisher.publishEvent(
+                        new FlightChangedEvent(id, FlightChangedEvent.Change.UPDATED)));
+                inserts.forEach(outboxService::flightCreated);
+                updated.values().forEach(outboxService::flightUpdated);
+                bookingStatsService.flightsCreated(inserts);
+                updated.values().forEach(bookingStatsService::flightUpdated);
+                chunkResult.setInserted(inserts.size());
+                chunkResult.setUpdated(updated.size());
+            });
+        } catch (RuntimeException e) {
+            // Typically a booking changing one of the matched flights mid-import; earlier chunks stay
+            long first = chunk.get(0).line();
+            long last = chunk.get(chunk.size() - 1).line();
+            result.reject(first, "Lines " + first + "-" + last + " not imported: " + e.getMessage(), chunk.size());
+            return;
+        }
+        result.add(chunkResult);
     }
 
-    public List<Flight> getAvailableFlights() {
-        return flightRepository.findAll().stream()
-                .filter(Flight::hasAvailableSeats)
+    // Existing flights on the chunk's routes and departure window, keyed by schedule. One
+    // query per chunk; a feed sorted by departure keeps the window, and the result, small.
+    private Map<String, Flight> existingFlights(List<ImportRow> chunk) {
+        List<Flight> rows = chunk.stream()
+                .map(ImportRow::flight)
+                .filter(flight -> flight != null && flight.getOrigin() != null
+                        && flight.getDestination() != null && flight.getDepartureTime() != null)
                 .toList();
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> origins = rows.stream().map(Flight::getOrigin).collect(Collectors.toSet());
+        Set<String> destinations = rows.stream().map(Flight::getDestination).collect(Collectors.toSet());
+        LocalDateTime from = rows.stream().map(Flight::getDepartureTime).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = rows.stream().map(Flight::getDepartureTime).max(Comparator.naturalOrder()).orElseThrow();
+        Map<String, Flight> flights = new HashMap<>();
+        for (Flight flight : flightRepository.findSchedules(origins, destinations, from, to)) {
+            // Oldest flight wins if the table already holds duplicates
+            flights.putIfAbsent(scheduleKey(flight), flight);
+        }
+        return flights;
+    }
+
+    private static String scheduleKey(Flight flight) {
+        return flight.getOrigin() + "|" + flight.getDestination() + "|" + flight.getDepartureTime();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// POSTs each batch as one JSON array; any non-2xx response has the batch sent again
+@Component
+@ConditionalOnProperty(name = "outbox.sinks.http.url")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+
+    public HttpOutboxSink(ObjectMapper objectMapper,
+                          @Value("${outbox.sinks.http.url}") String url,
+                          @Value("${outbox.sinks.http.timeout-ms:5000}") long timeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox subscriber " + url + " answered " + response.statusCode());
+        }
+    }
+}
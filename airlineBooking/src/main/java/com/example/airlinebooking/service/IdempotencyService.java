@@ -0,0 +1,146 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.exception.IdempotencyInProgressException;
+import com.example.airlinebooking.exception.IdempotencyKeyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Remembers the result of recent writes by Idempotency-Key so a client retrying after a
+// timeout gets the original response back instead of running the write again. Keys are
+// scoped to the user, expire after a TTL and the store never grows past max-entries.
+// Only successful results are kept - a failed request can be retried with the same key.
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final MeterRegistry meterRegistry;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long waitMillis;
+    // Insertion order is expiry order (one TTL for all), so expired entries sit at the head
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyService(MeterRegistry meterRegistry,
+                              @Value("${idempotency.ttl-ms:86400000}") long ttlMillis,
+                              @Value("${idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${idempotency.wait-ms:5000}") long waitMillis) {
+        this.meterRegistry = meterRegistry;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.waitMillis = waitMillis;
+        meterRegistry.gauge("booking.idempotency.entries", this, IdempotencyService::size);
+    }
+
+    // Runs action once per (user, key). A duplicate arriving while the first is still running
+    // waits up to wait-ms for it, then gets a conflict - retries behind a slow original do not
+    // each hold a request thread for as long as it runs. request describes the operation, so a key reused for a different
+    // request is rejected rather than answered with an unrelated response.
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Long userId, String request, Supplier<T> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String scopedKey = userId + ":" + key;
+        Entry entry = new Entry(request, System.currentTimeMillis() + ttlMillis);
+        Entry existing = putIfAbsent(scopedKey, entry);
+        if (existing != null) {
+            if (!existing.request.equals(request)) {
+                throw new IdempotencyKeyException("Idempotency-Key " + key + " was already used for a different request");
+            }
+            return (T) await(key, existing.result);
+        }
+
+        try {
+            T result = action.get();
+            entry.result.complete(result);
+            count("stored");
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(scopedKey, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry putIfAbsent(String scopedKey, Entry entry) {
+        synchronized (entries) {
+            evictExpired(System.currentTimeMillis());
+            Entry existing = entries.get(scopedKey);
+            if (existing != null) {
+                return existing;
+            }
+            entries.put(scopedKey, entry);
+            if (entries.size() > maxEntries) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            return null;
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue().expiresAt <= now) {
+            iterator.remove();
+        }
+    }
+
+    // The duplicate sees the original failure too; it is not stored for later retries
+    private Object await(String key, CompletableFuture<Object> result) {
+        try {
+            Object value = result.get(waitMillis, TimeUnit.MILLISECONDS);
+            count("replayed");
+            return value;
+        } catch (TimeoutException e) {
+            count("in_progress");
+            throw new IdempotencyInProgressException("Request with Idempotency-Key " + key + " is still running");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyInProgressException("Interrupted waiting for Idempotency-Key " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("booking.idempotency", "outcome", outcome).increment();
+    }
+
+    private static final class Entry {
+        private final String request;
+        private final long expiresAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(String request, long expiresAt) {
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
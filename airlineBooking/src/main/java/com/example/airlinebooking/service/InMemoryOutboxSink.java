@@ -0,0 +1,39 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Keeps every delivered event in memory - for tests and local experiments
+@Component
+@ConditionalOnProperty(name = "outbox.sinks.memory.enabled", havingValue = "true")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+    private volatile boolean failing;
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        if (failing) {
+            throw new IllegalStateException("Outbox sink unavailable");
+        }
+        events.addAll(batch);
+    }
+
+    public List<OutboxEvent> events() {
+        return List.copyOf(events);
+    }
+
+    // Simulates an unreachable subscriber
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+}
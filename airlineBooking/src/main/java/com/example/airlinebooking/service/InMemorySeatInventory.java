@@ -0,0 +1,559 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.SeatMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+
+// In-process seat inventory engine. Each flight is an independent lock-free seat bitmap, so
+// bookings on a hot flight never wait on a Postgres row lock. The flights table is kept
+// current by a write-behind flush, and rebuilt from the bookings table on startup.
+//
+// Seats are taken immediately and given back on commit: a reservation is undone if its
+// transaction rolls back, while a release only becomes visible once the cancellation is
+// committed. That way a rolled back transaction can never leave a seat double-sold.
+//
+// Single instance only: each process keeps its own bitmaps and the flush overwrites the
+// flights row, so a second instance - or a deploy overlapping the old one - oversells seats.
+@Service
+@ConditionalOnProperty(name = "inventory.mode", havingValue = "memory")
+public class InMemorySeatInventory implements SeatInventory, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemorySeatInventory.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SeatMapReconciler seatMapReconciler;
+    private final int flushBatchSize;
+    private final ConcurrentHashMap<Long, FlightSeats> flights = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<FlightSeats> dirty = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+
+    public InMemorySeatInventory(JdbcTemplate jdbcTemplate,
+                                 SeatMapReconciler seatMapReconciler,
+                                 @Value("${inventory.flush-batch-size:500}") int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.seatMapReconciler = seatMapReconciler;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @Override
+    public int reserve(Long flightId) {
+        FlightSeats seats = seatsFor(flightId);
+        if (seats == null) {
+            return NO_SEAT;
+        }
+        int seatNumber = seats.reserveAny();
+        if (seatNumber != NO_SEAT) {
+            undoOnRollback(seats, seatNumber);
+        }
+        return seatNumber;
+    }
+
+    @Override
+    public List<Integer> reserveSeats(Long flightId, int count) {
+        FlightSeats seats = seatsFor(flightId);
+        if (seats == null) {
+            return List.of();
+        }
+        List<Integer> seatNumbers = seats.reserveAny(count);
+        if (seatNumbers.isEmpty()) {
+            return List.of();
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                markDirty(seats);
+            } else {
+                seatNumbers.forEach(seats::release);
+            }
+        });
+        return seatNumbers;
+    }
+
+    @Override
+    public Map<Long, List<Integer>> reserveGroup(SortedMap<Long, Integer> seatsByFlight) {
+        Map<Long, List<Integer>> seatsTaken = new TreeMap<>();
+        Map<Long, FlightSeats> legs = new TreeMap<>();
+        for (Map.Entry<Long, Integer> leg : seatsByFlight.entrySet()) {
+            FlightSeats seats = seatsFor(leg.getKey());
+            List<Integer> seatNumbers = seats == null ? List.of() : seats.reserveAny(leg.getValue());
+            if (seatNumbers.isEmpty()) {
+                // Nothing was registered with the transaction yet, so hand the earlier legs straight back
+                legs.forEach((flightId, taken) -> seatsTaken.get(flightId).forEach(taken::release));
+                return Map.of();
+            }
+            seatsTaken.put(leg.getKey(), seatNumbers);
+            legs.put(leg.getKey(), seats);
+        }
+        afterCompletion(committed -> seatsTaken.forEach((flightId, taken) -> {
+            FlightSeats seats = legs.get(flightId);
+            if (committed) {
+                markDirty(seats);
+            } else {
+                taken.forEach(seats::release);
+            }
+        }));
+        return seatsTaken;
+    }
+
+    @Override
+    public boolean reserve(Long flightId, int seatNumber) {
+        FlightSeats seats = seatsFor(flightId);
+        if (seats == null || !seats.reserve(seatNumber)) {
+            return false;
+        }
+        undoOnRollback(seats, seatNumber);
+        return true;
+    }
+
+    @Override
+    public boolean areTaken(Long flightId, List<Integer> seatNumbers) {
+        FlightSeats seats = seatsFor(flightId);
+        if (seats == null) {
+            return false;
+        }
+        SeatMap seatMap = seats.snapshot();
+        return seatNumbers.stream().allMatch(seatMap::isTaken);
+    }
+
+    @Override
+    public void release(Long flightId, int seatNumber) {
+        FlightSeats seats = seatsFor(flightId);
+        if (seats == null) {
+            return;
+        }
+        afterCompletion(committed -> {
+            if (committed && seats.release(seatNumber)) {
+                markDirty(seats);
+            }
+        });
+    }
+
+    @Override
+    public void releaseSeats(Long flightId, List<Integer> seatNumbers) {
+        FlightSeats seats = seatsFor(flightId);
+        if (seats == null) {
+            return;
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                seatNumbers.forEach(seats::release);
+                markDirty(seats);
+            }
+        });
+    }
+
+    @Override
+    public int availableSeats(Long flightId, int storedSeats) {
+        // A flight the engine has never touched has no changes the table is missing
+        FlightSeats seats = flights.get(flightId);
+        return seats != null ? seats.available() : storedSeats;
+    }
+
+    @Override
+    public SeatMap seatMap(Flight flight) {
+        FlightSeats seats = seatsFor(flight.getId());
+        return seats != null ? seats.snapshot() : SeatMap.of(flight);
+    }
+
+    @Override
+    public int changeCapacity(Flight flight, int newCapacity) {
+        FlightSeats seats = seatsFor(flight.getId());
+        if (seats == null) {
+            throw new IllegalStateException("Flight " + flight.getId() + " is not tracked by the seat inventory");
+        }
+        int oldCapacity = seats.capacity();
+        if (newCapacity < oldCapacity) {
+            // Shrink now so no reservation can slip in above the new capacity
+            if (newCapacity < seats.booked()) {
+                throw new IllegalArgumentException("Cannot reduce capacity below number of booked seats");
+            }
+            if (!seats.setCapacity(newCapacity)) {
+                throw new IllegalArgumentException("Cannot remove seats that are still booked");
+            }
+        }
+        // Always rewrite the row after commit - the entity save carries a stale seat map
+        afterCompletion(committed -> {
+            if (committed) {
+                if (newCapacity > oldCapacity) {
+                    // Grow on commit so a rolled back update never hands out phantom seats
+                    seats.setCapacity(newCapacity);
+                }
+                markDirty(seats);
+            } else if (newCapacity < oldCapacity) {
+                seats.setCapacity(oldCapacity);
+            }
+        });
+        return newCapacity - seats.booked();
+    }
+
+    @Override
+    public void forget(Long flightId) {
+        // A late reservation reloads the flight, finds nothing and gets no seat
+        flights.remove(flightId);
+    }
+
+    // Write-behind: pushes the latest seat map of every changed flight in JDBC batches
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:200}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>(flushBatchSize);
+        List<FlightSeats> pending = new ArrayList<>(flushBatchSize);
+        FlightSeats seats;
+        while ((seats = dirty.poll()) != null) {
+            // Clear the flag before reading so a concurrent change re-queues the flight
+            seats.dirty.set(false);
+            SeatMap seatMap = seats.snapshot();
+            batch.add(new Object[]{seatMap.availableSeats(), seatMap.toBytes(), seats.flightId});
+            pending.add(seats);
+            if (batch.size() == flushBatchSize) {
+                write(batch, pending);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, pending);
+        }
+    }
+
+    private void write(List<Object[]> batch, List<FlightSeats> pending) {
+        try {
+            jdbcTemplate.batchUpdate("UPDATE flights SET available_seats = ?, seat_map = ? WHERE id = ?", batch);
+        } catch (DataAccessException e) {
+            logger.warn("Seat inventory flush of {} flights failed, will retry: {}", pending.size(), e.getMessage());
+            pending.forEach(this::markDirty);
+        }
+        batch.clear();
+        pending.clear();
+    }
+
+    // Rebuilds seat maps from committed bookings, then loads every flight into memory
+    public void reconcile() {
+        flights.clear();
+        dirty.clear();
+        seatMapReconciler.reconcile().forEach((id, seatMap) -> flights.put(id, new FlightSeats(id, seatMap)));
+        logger.info("Seat inventory loaded {} flights", flights.size());
+    }
+
+    @Override
+    public void start() {
+        reconcile();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        // Drain pending changes before the datasource goes away
+        flush();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before and stop after the web server
+        return 0;
+    }
+
+    private FlightSeats seatsFor(Long flightId) {
+        if (flightId == null) {
+            return null;
+        }
+        // Flights created after startup are picked up on first use
+        return flights.computeIfAbsent(flightId, this::load);
+    }
+
+    private FlightSeats load(Long flightId) {
+        List<FlightSeats> found = jdbcTemplate.query(
+                "SELECT capacity, seat_map FROM flights WHERE id = ?",
+                (rs, rowNum) -> new FlightSeats(flightId, SeatMap.of(rs.getBytes("seat_map"), rs.getInt("capacity"))),
+                flightId);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private void markDirty(FlightSeats seats) {
+        if (seats.dirty.compareAndSet(false, true)) {
+            dirty.add(seats);
+        }
+    }
+
+    private void undoOnRollback(FlightSeats seats, int seatNumber) {
+        afterCompletion(committed -> {
+            if (committed) {
+                markDirty(seats);
+            } else {
+                seats.release(seatNumber);
+            }
+        });
+    }
+
+    private void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.completed(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.completed(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+
+    // One flight's seats: a bitmap of 64-seat words claimed by CAS, plus capacity and booked
+    // count packed into one AtomicLong. The count is taken before a bit is set and dropped after
+    // it is cleared, so a caller holding a count is always guaranteed a free bit.
+    static final class FlightSeats {
+        final Long flightId;
+        final AtomicBoolean dirty = new AtomicBoolean();
+        // Shared by every seat change; only a capacity change takes it exclusively
+        private final StampedLock resizeLock = new StampedLock();
+        private final AtomicLong state;
+        private volatile AtomicLongArray words;
+        // Lowest word that may still have a free seat
+        private volatile int freeHint;
+
+        FlightSeats(Long flightId, SeatMap seatMap) {
+            this.flightId = flightId;
+            int capacity = seatMap.capacity();
+            byte[] bytes = seatMap.toBytes();
+            long[] bits = new long[wordsFor(capacity)];
+            for (int i = 0; i < bytes.length; i++) {
+                bits[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) << 3);
+            }
+            this.words = new AtomicLongArray(bits);
+            this.state = new AtomicLong(pack(capacity, seatMap.takenCount()));
+        }
+
+        // Next free seat, or NO_SEAT when sold out - no allocation on this path
+        int reserveAny() {
+            long stamp = resizeLock.readLock();
+            try {
+                if (!takeCount()) {
+                    return NO_SEAT;
+                }
+                return claimFreeBit(capacity(state.get()));
+            } finally {
+                resizeLock.unlockRead(stamp);
+            }
+        }
+
+        // All count seats or none - a request that cannot be met never holds seats, even briefly,
+        // that a smaller request could have had
+        List<Integer> reserveAny(int count) {
+            long stamp = resizeLock.readLock();
+            try {
+                if (!takeCount(count)) {
+                    return List.of();
+                }
+                int capacity = capacity(state.get());
+                List<Integer> seatNumbers = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    seatNumbers.add(claimFreeBit(capacity));
+                }
+                return seatNumbers;
+            } finally {
+                resizeLock.unlockRead(stamp);
+            }
+        }
+
+        boolean reserve(int seatNumber) {
+            long stamp = resizeLock.readLock();
+            try {
+                if (seatNumber < 1 || seatNumber > capacity(state.get()) || !takeCount()) {
+                    return false;
+                }
+                int bit = seatNumber - 1;
+                long mask = 1L << bit;
+                AtomicLongArray bits = words;
+                while (true) {
+                    long word = bits.get(bit >>> 6);
+                    if ((word & mask) != 0) {
+                        dropCount();
+                        return false;
+                    }
+                    if (bits.compareAndSet(bit >>> 6, word, word | mask)) {
+                        return true;
+                    }
+                }
+            } finally {
+                resizeLock.unlockRead(stamp);
+            }
+        }
+
+        boolean release(int seatNumber) {
+            long stamp = resizeLock.readLock();
+            try {
+                if (seatNumber < 1 || seatNumber > capacity(state.get())) {
+                    return false;
+                }
+                int bit = seatNumber - 1;
+                int index = bit >>> 6;
+                long mask = 1L << bit;
+                AtomicLongArray bits = words;
+                while (true) {
+                    long word = bits.get(index);
+                    if ((word & mask) == 0) {
+                        return false;
+                    }
+                    if (bits.compareAndSet(index, word, word & ~mask)) {
+                        break;
+                    }
+                }
+                dropCount();
+                if (index < freeHint) {
+                    freeHint = index;
+                }
+                return true;
+            } finally {
+                resizeLock.unlockRead(stamp);
+            }
+        }
+
+        // Fails when a seat above the new capacity is still taken
+        boolean setCapacity(int newCapacity) {
+            long stamp = resizeLock.writeLock();
+            try {
+                AtomicLongArray bits = words;
+                for (int bit = newCapacity; bit < capacity(state.get()); bit++) {
+                    if ((bits.get(bit >>> 6) & (1L << bit)) != 0) {
+                        return false;
+                    }
+                }
+                int needed = wordsFor(newCapacity);
+                if (needed > bits.length()) {
+                    long[] grown = new long[needed];
+                    for (int i = 0; i < bits.length(); i++) {
+                        grown[i] = bits.get(i);
+                    }
+                    words = new AtomicLongArray(grown);
+                }
+                state.set(pack(newCapacity, booked(state.get())));
+                return true;
+            } finally {
+                resizeLock.unlockWrite(stamp);
+            }
+        }
+
+        SeatMap snapshot() {
+            long stamp = resizeLock.readLock();
+            try {
+                int capacity = capacity(state.get());
+                AtomicLongArray bits = words;
+                byte[] bytes = new byte[SeatMap.bytesFor(capacity)];
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = (byte) (bits.get(i >>> 3) >>> ((i & 7) << 3));
+                }
+                return SeatMap.of(bytes, capacity);
+            } finally {
+                resizeLock.unlockRead(stamp);
+            }
+        }
+
+        int capacity() {
+            return capacity(state.get());
+        }
+
+        int booked() {
+            return booked(state.get());
+        }
+
+        int available() {
+            long current = state.get();
+            return capacity(current) - booked(current);
+        }
+
+        // Starts at the hint word and wraps; the held count guarantees a free bit exists
+        private int claimFreeBit(int capacity) {
+            AtomicLongArray bits = words;
+            int wordCount = wordsFor(capacity);
+            int index = Math.min(freeHint, wordCount - 1);
+            while (true) {
+                long valid = validMask(index, capacity);
+                long word = bits.get(index);
+                long free = ~word & valid;
+                if (free == 0) {
+                    index = index + 1 == wordCount ? 0 : index + 1;
+                    continue;
+                }
+                long bit = free & -free;
+                if (bits.compareAndSet(index, word, word | bit)) {
+                    if ((word | bit) == valid && freeHint == index) {
+                        freeHint = index + 1 == wordCount ? 0 : index + 1;
+                    }
+                    return (index << 6) + Long.numberOfTrailingZeros(bit) + 1;
+                }
+            }
+        }
+
+        private boolean takeCount() {
+            return takeCount(1);
+        }
+
+        private boolean takeCount(int count) {
+            while (true) {
+                long current = state.get();
+                int booked = booked(current);
+                if (booked + count > capacity(current)) {
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(capacity(current), booked + count))) {
+                    return true;
+                }
+            }
+        }
+
+        private void dropCount() {
+            state.decrementAndGet();
+        }
+
+        private static long validMask(int index, int capacity) {
+            int seatsInWord = capacity - (index << 6);
+            return seatsInWord >= 64 ? -1L : (1L << seatsInWord) - 1;
+        }
+
+        private static int wordsFor(int capacity) {
+            return Math.max((capacity + 63) >>> 6, 1);
+        }
+
+        private static long pack(int capacity, int booked) {
+            return ((long) capacity << 32) | (booked & 0xFFFFFFFFL);
+        }
+
+        private static int capacity(long state) {
+            return (int) (state >>> 32);
+        }
+
+        private static int booked(long state) {
+            return (int) state;
+        }
+    }
+}
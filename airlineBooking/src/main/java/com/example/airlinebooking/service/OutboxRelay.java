@@ -0,0 +1,180 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.OutboxEvent;
+import com.example.airlinebooking.model.OutboxOffset;
+import com.example.airlinebooking.repository.OutboxEventRepository;
+import com.example.airlinebooking.repository.OutboxOffsetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves outbox events to subscribers in two steps. Sequencing gives committed events
+// consecutive positions under a lock on the sequencer row, so the log only ever grows at
+// its end and an offset never skips an event that committed late. Delivery then hands each
+// sink the events after its offset in batches, and moves the offset in the same
+// transaction once the sink accepted them.
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // The offsets row whose position is the end of the log - never a subscriber name
+    static final String SEQUENCER = "_sequencer";
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long retentionMillis;
+
+    private final AtomicLong head = new AtomicLong();
+    private final Map<String, AtomicLong> offsets = new HashMap<>();
+    private volatile long lastPurge;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxOffsetRepository outboxOffsetRepository,
+                       List<OutboxSink> sinks, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                       @Value("${outbox.batch-size:500}") int batchSize,
+                       @Value("${outbox.retention-ms:604800000}") long retentionMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @PostConstruct
+    void registerSubscribers() {
+        head.set(ensureOffset(SEQUENCER));
+        Gauge.builder("outbox.position", head, AtomicLong::get)
+                .description("Position of the newest sequenced outbox event")
+                .register(meterRegistry);
+        for (OutboxSink sink : sinks) {
+            AtomicLong offset = new AtomicLong(ensureOffset(sink.name()));
+            offsets.put(sink.name(), offset);
+            Gauge.builder("outbox.lag", () -> head.get() - offset.get())
+                    .description("Sequenced events the subscriber has not acknowledged")
+                    .tag("subscriber", sink.name())
+                    .register(meterRegistry);
+            logger.info("Outbox subscriber {} starts after position {}", sink.name(), offset.get());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay-interval-ms:500}")
+    public void relay() {
+        while (sequence() == batchSize) {
+            // A full batch means more may be waiting
+        }
+        for (OutboxSink sink : sinks) {
+            deliver(sink);
+        }
+        if (System.currentTimeMillis() - lastPurge > PURGE_INTERVAL_MILLIS) {
+            purge();
+        }
+    }
+
+    // Positions the oldest unsequenced events; returns how many
+    int sequence() {
+        Integer sequenced = transactionTemplate.execute(status -> {
+            OutboxOffset sequencer = outboxOffsetRepository.lock(SEQUENCER).orElseThrow();
+            List<OutboxEvent> events = outboxEventRepository.findUnsequenced(Limit.of(batchSize));
+            long position = sequencer.getPosition();
+            for (OutboxEvent event : events) {
+                event.setPosition(++position);
+            }
+            sequencer.setPosition(position);
+            sequencer.setUpdatedAt(LocalDateTime.now());
+            head.set(position);
+            return events.size();
+        });
+        return sequenced != null ? sequenced : 0;
+    }
+
+    // Until the sink is caught up or fails. The offset row stays locked while a batch is
+    // out, so a slow subscriber holds one connection but never sees a batch twice at once.
+    void deliver(OutboxSink sink) {
+        Counter delivered = meterRegistry.counter("outbox.delivered", "subscriber", sink.name());
+        while (true) {
+            int count;
+            try {
+                Integer published = transactionTemplate.execute(status -> {
+                    OutboxOffset offset = outboxOffsetRepository.lock(sink.name()).orElseThrow();
+                    // Another instance may have delivered since - keeps the lag gauge honest
+                    offsets.get(sink.name()).set(offset.getPosition());
+                    List<OutboxEvent> events = outboxEventRepository.findAfter(offset.getPosition(), Limit.of(batchSize));
+                    if (events.isEmpty()) {
+                        return 0;
+                    }
+                    try {
+                        sink.publish(events);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                    offset.setPosition(events.get(events.size() - 1).getPosition());
+                    offset.setUpdatedAt(LocalDateTime.now());
+                    offsets.get(sink.name()).set(offset.getPosition());
+                    return events.size();
+                });
+                count = published != null ? published : 0;
+            } catch (RuntimeException e) {
+                // The offset did not move - the same batch goes out on the next run
+                meterRegistry.counter("outbox.delivery.failures", "subscriber", sink.name()).increment();
+                logger.warn("Outbox delivery to {} failed, will retry: {}", sink.name(), e.getMessage());
+                return;
+            }
+            delivered.increment(count);
+            if (count < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Drops events every subscriber has acknowledged once they are older than the retention
+    void purge() {
+        lastPurge = System.currentTimeMillis();
+        long acknowledged = offsets.values().stream()
+                .mapToLong(AtomicLong::get)
+                .min()
+                .orElse(head.get());
+        LocalDateTime before = LocalDateTime.now().minusNanos(retentionMillis * 1_000_000);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteDelivered(acknowledged, before));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    // Creates the offset row on first start; another instance may win that race
+    private long ensureOffset(String name) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!outboxOffsetRepository.existsById(name)) {
+                    outboxOffsetRepository.save(new OutboxOffset(name));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Outbox offset {} was created concurrently", name);
+        }
+        return outboxOffsetRepository.findById(name).map(OutboxOffset::getPosition).orElse(0L);
+    }
+}
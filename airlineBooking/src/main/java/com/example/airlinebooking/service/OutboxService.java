@@ -0,0 +1,126 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.OutboxEvent;
+import com.example.airlinebooking.model.SeatHold;
+import com.example.airlinebooking.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Records booking, flight and seat hold changes in the outbox. Always joins the caller's
+// transaction, so an event exists exactly when the change it describes was committed.
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void bookingCreated(Booking booking) {
+        record(OutboxEvent.Type.BOOKING_CREATED, booking, null);
+    }
+
+    public void bookingsCreated(List<Booking> bookings) {
+        outboxEventRepository.saveAll(bookings.stream()
+                .map(booking -> event(OutboxEvent.Type.BOOKING_CREATED, "booking", booking.getId(), bookingPayload(booking, null)))
+                .toList());
+    }
+
+    public void bookingMoved(Booking booking, Long previousFlightId) {
+        record(OutboxEvent.Type.BOOKING_UPDATED, booking, previousFlightId);
+    }
+
+    public void bookingCancelled(Booking booking) {
+        record(OutboxEvent.Type.BOOKING_CANCELLED, booking, null);
+    }
+
+    public void bookingStatusChanged(Booking booking) {
+        record(OutboxEvent.Type.BOOKING_STATUS_CHANGED, booking, null);
+    }
+
+    public void bookingDeleted(Booking booking) {
+        record(OutboxEvent.Type.BOOKING_DELETED, booking, null);
+    }
+
+    public void flightCreated(Flight flight) {
+        outboxEventRepository.save(event(OutboxEvent.Type.FLIGHT_CREATED, "flight", flight.getId(), flightPayload(flight)));
+    }
+
+    public void flightUpdated(Flight flight) {
+        outboxEventRepository.save(event(OutboxEvent.Type.FLIGHT_UPDATED, "flight", flight.getId(), flightPayload(flight)));
+    }
+
+    // Held seats are a flight change - they leave and rejoin its availability
+    public void seatsHeld(SeatHold hold) {
+        outboxEventRepository.save(event(OutboxEvent.Type.SEATS_HELD, "flight", hold.getFlightId(), holdPayload(hold)));
+    }
+
+    public void seatsReleased(SeatHold hold) {
+        outboxEventRepository.save(event(OutboxEvent.Type.SEATS_RELEASED, "flight", hold.getFlightId(), holdPayload(hold)));
+    }
+
+    private void record(OutboxEvent.Type type, Booking booking, Long previousFlightId) {
+        outboxEventRepository.save(event(type, "booking", booking.getId(), bookingPayload(booking, previousFlightId)));
+    }
+
+    private Map<String, Object> bookingPayload(Booking booking, Long previousFlightId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("bookingId", booking.getId());
+        payload.put("userId", booking.getUser().getId());
+        payload.put("flightId", booking.getFlight().getId());
+        if (previousFlightId != null) {
+            payload.put("previousFlightId", previousFlightId);
+        }
+        payload.put("status", booking.getStatus());
+        payload.put("seatNumber", booking.getSeatNumber());
+        return payload;
+    }
+
+    private Map<String, Object> flightPayload(Flight flight) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("flightId", flight.getId());
+        payload.put("origin", flight.getOrigin());
+        payload.put("destination", flight.getDestination());
+        payload.put("departureTime", flight.getDepartureTime());
+        payload.put("arrivalTime", flight.getArrivalTime());
+        payload.put("capacity", flight.getCapacity());
+        payload.put("availableSeats", flight.getAvailableSeats());
+        return payload;
+    }
+
+    private Map<String, Object> holdPayload(SeatHold hold) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("flightId", hold.getFlightId());
+        payload.put("holdId", hold.getId());
+        payload.put("seatNumbers", hold.getSeatNumbers());
+        return payload;
+    }
+
+    private OutboxEvent event(OutboxEvent.Type type, String aggregateType, Long aggregateId, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
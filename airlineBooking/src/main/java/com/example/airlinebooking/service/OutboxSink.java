@@ -0,0 +1,16 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.OutboxEvent;
+
+import java.util.List;
+
+// A subscriber of the outbox log. Delivery is at least once: a batch is repeated when the
+// relay cannot record that it was delivered, so receivers skip positions they have seen.
+public interface OutboxSink {
+
+    // Names the subscriber's offset - renaming a sink starts it from the oldest kept event
+    String name();
+
+    // Events in position order; throwing leaves the offset where it was
+    void publish(List<OutboxEvent> events) throws Exception;
+}
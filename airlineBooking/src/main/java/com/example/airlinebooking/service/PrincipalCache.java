@@ -0,0 +1,56 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.AuthenticatedUser;
+import com.example.airlinebooking.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Bounded cache of authenticated callers by user id, so a request with a token only hits the
+// users table on a miss. Entries are dropped after commit by UserChangedEvent; other instances
+// pick the change up within the TTL.
+@Component
+public class PrincipalCache {
+
+    private final Cache<Long, AuthenticatedUser> principals;
+    private final UserRepository userRepository;
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${auth.principal-cache.ttl-ms:300000}") long ttlMillis,
+                          @Value("${auth.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    // Null when the account is gone or its email no longer matches the token's subject -
+    // a token issued before an email change stops working, as it did before caching
+    public AuthenticatedUser resolve(Long userId, String email) {
+        if (userId == null) {
+            // Token issued before the user id claim - resolve by email, uncached
+            return userRepository.findByEmail(email)
+                    .map(user -> new AuthenticatedUser(user.getId(), user.getEmail()))
+                    .orElse(null);
+        }
+        AuthenticatedUser principal = principals.get(userId, id -> userRepository.findById(id)
+                .map(user -> new AuthenticatedUser(user.getId(), user.getEmail()))
+                .orElse(null));
+        return principal != null && principal.getEmail().equals(email) ? principal : null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        principals.invalidate(event.getUserId());
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.airlinebooking.service;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Retries a transactional write that lost an optimistic-lock race (or was picked as a
+// deadlock victim). The retry advice wraps
+// the transaction advice, so every attempt runs in a new transaction against fresh rows.
+// Backoff is exponential with random jitter so contending requests do not retry in lockstep.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${booking.retry.max-attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${booking.retry.initial-backoff-ms:10}",
+                maxDelayExpression = "${booking.retry.max-backoff-ms:200}",
+                multiplier = 2,
+                random = true),
+        listeners = "optimisticRetryListener")
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,260 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.exception.BookingException;
+import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.exception.HeldSeatsLostException;
+import com.example.airlinebooking.exception.HoldNotFoundException;
+import com.example.airlinebooking.exception.UnauthorizedAccessException;
+import com.example.airlinebooking.exception.UserNotFoundException;
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.SeatHold;
+import com.example.airlinebooking.repository.FlightRepository;
+import com.example.airlinebooking.repository.SeatHoldRepository;
+import com.example.airlinebooking.repository.UserRepository;
+import com.example.airlinebooking.util.HashedTimerWheel;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Takes seats out of the inventory for a limited time while a client checks out. A hold is a
+// seat_holds row written in the same transaction as the seats it takes, so any instance can
+// confirm or release it. The instance that created a hold expires it on a timer wheel; a
+// periodic sweep releases expired holds no wheel got to, such as those of a stopped instance.
+// Giving seats back can wait on the flight's row lock, so expiry runs on a small pool and one
+// hot flight cannot hold up every other hold's expiry.
+@Service
+public class SeatHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final SeatInventory seatInventory;
+    private final BookingService bookingService;
+    private final SeatHoldRepository seatHoldRepository;
+    private final UserRepository userRepository;
+    private final FlightRepository flightRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+    private final int maxSeats;
+    private final int maxPerUser;
+    private final HashedTimerWheel expiryWheel;
+    private final ExecutorService releaser;
+    // Wheel timeouts of the holds this instance created and has not seen end yet
+    private final Map<String, HashedTimerWheel.Timeout> expiries = new ConcurrentHashMap<>();
+
+    public SeatHoldService(SeatInventory seatInventory,
+                           BookingService bookingService,
+                           SeatHoldRepository seatHoldRepository,
+                           UserRepository userRepository,
+                           FlightRepository flightRepository,
+                           MeterRegistry meterRegistry,
+                           ApplicationEventPublisher eventPublisher,
+                           OutboxService outboxService,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${holds.ttl-ms:600000}") long ttlMillis,
+                           @Value("${holds.max-seats:9}") int maxSeats,
+                           @Value("${holds.max-per-user:3}") int maxPerUser,
+                           @Value("${holds.wheel-tick-ms:1000}") long tickMillis,
+                           @Value("${holds.release-threads:2}") int releaseThreads) {
+        this.seatInventory = seatInventory;
+        this.bookingService = bookingService;
+        this.seatHoldRepository = seatHoldRepository;
+        this.userRepository = userRepository;
+        this.flightRepository = flightRepository;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.ttlMillis = ttlMillis;
+        this.maxSeats = maxSeats;
+        this.maxPerUser = maxPerUser;
+        this.expiryWheel = new HashedTimerWheel("seat-hold-expiry", tickMillis, TimeUnit.MILLISECONDS, 512);
+        this.expiryWheel.start();
+        this.releaser = Executors.newFixedThreadPool(releaseThreads, runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-release");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("booking.holds.active", expiries, Map::size);
+    }
+
+    public SeatHold createHold(Long userId, Long flightId, int seats) {
+        if (seats < 1 || seats > maxSeats) {
+            throw new BookingException("A hold must cover between 1 and " + maxSeats + " seats");
+        }
+
+        SeatHold hold = transactionTemplate.execute(status -> {
+            userRepository.findForUpdate(userId)
+                    .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
+            LocalDateTime now = LocalDateTime.now();
+            // Without a cap one account could keep a whole flight held by re-holding as holds expire
+            if (seatHoldRepository.countActive(userId, now) >= maxPerUser) {
+                throw new BookingException("At most " + maxPerUser + " seat holds can be open at a time");
+            }
+
+            List<Integer> seatNumbers = seatInventory.reserveSeats(flightId, seats);
+            if (seatNumbers.isEmpty()) {
+                if (!flightRepository.existsById(flightId)) {
+                    throw new FlightNotFoundException("Flight not found with ID: " + flightId);
+                }
+                throw new BookingException("Not enough seats available to hold " + seats + " on flight " + flightId);
+            }
+            eventPublisher.publishEvent(new FlightChangedEvent(flightId, FlightChangedEvent.Change.SEATS_TAKEN));
+            SeatHold saved = seatHoldRepository.save(new SeatHold(UUID.randomUUID().toString(), userId, flightId,
+                    List.copyOf(seatNumbers), now.plus(Duration.ofMillis(ttlMillis))));
+            outboxService.seatsHeld(saved);
+            return saved;
+        });
+
+        String holdId = hold.getId();
+        expiries.put(holdId, expiryWheel.schedule(() -> releaser.execute(() -> expireOnWheel(holdId)),
+                ttlMillis, TimeUnit.MILLISECONDS));
+        count("created");
+        return hold;
+    }
+
+    public SeatHold getHold(String holdId, Long userId) {
+        return owned(seatHoldRepository.findById(holdId), holdId, userId);
+    }
+
+    // A failed confirm leaves the hold as it was, to be retried or to expire. Only a hold whose
+    // seats are no longer taken for it is dropped - without giving back seats someone else may own.
+    public List<Booking> confirmHold(String holdId, Long userId) {
+        List<Booking> bookings;
+        try {
+            bookings = transactionTemplate.execute(status -> {
+                SeatHold hold = owned(seatHoldRepository.findForUpdate(holdId), holdId, userId);
+                List<Booking> confirmed = bookingService.confirmHeldSeats(userId, hold.getFlightId(), hold.getSeatNumbers());
+                seatHoldRepository.delete(hold);
+                return confirmed;
+            });
+        } catch (HeldSeatsLostException e) {
+            logger.warn("Dropping seat hold {}: {}", holdId, e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                    seatHoldRepository.findForUpdate(holdId).ifPresent(seatHoldRepository::delete));
+            cancelExpiry(holdId);
+            count("lost");
+            throw e;
+        }
+        cancelExpiry(holdId);
+        count("confirmed");
+        return bookings;
+    }
+
+    public void releaseHold(String holdId, Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            SeatHold hold = owned(seatHoldRepository.findForUpdate(holdId), holdId, userId);
+            seatHoldRepository.delete(hold);
+            releaseSeats(hold);
+        });
+        cancelExpiry(holdId);
+        count("released");
+    }
+
+    // Backstop for holds whose wheel is gone or whose release failed. A batch per run, so a
+    // hold that keeps failing to release cannot keep the sweep busy.
+    @Scheduled(fixedDelayString = "${holds.sweep-interval-ms:60000}", initialDelayString = "${holds.sweep-interval-ms:60000}")
+    public void sweep() {
+        List<String> expired = seatHoldRepository.findExpiredIds(LocalDateTime.now(), Limit.of(SWEEP_BATCH_SIZE));
+        int released = 0;
+        for (String holdId : expired) {
+            try {
+                if (expire(holdId)) {
+                    released++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not release seats of expired hold {}, will retry", holdId, e);
+            }
+        }
+        if (released > 0) {
+            logger.info("Released {} expired seat holds", released);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Holds still pending are released by the sweep of whichever instance runs next
+        expiryWheel.stop();
+        releaser.shutdownNow();
+    }
+
+    // Runs on the release pool once the wheel fires
+    private void expireOnWheel(String holdId) {
+        try {
+            expire(holdId);
+        } catch (RuntimeException e) {
+            // Left for the sweep
+            logger.warn("Could not release seats of expired hold {}", holdId, e);
+        }
+    }
+
+    // Claims the hold under its row lock, so a confirm racing the expiry either wins or finds it gone
+    private boolean expire(String holdId) {
+        expiries.remove(holdId);
+        Optional<SeatHold> expired = transactionTemplate.execute(status -> {
+            Optional<SeatHold> hold = seatHoldRepository.findForUpdate(holdId);
+            hold.ifPresent(found -> {
+                seatHoldRepository.delete(found);
+                releaseSeats(found);
+            });
+            return hold;
+        });
+        if (expired == null || expired.isEmpty()) {
+            return false;
+        }
+        SeatHold hold = expired.get();
+        count("expired");
+        logger.debug("Seat hold {} expired, released {} seats on flight {}", holdId, hold.getSeatNumbers().size(), hold.getFlightId());
+        return true;
+    }
+
+    private void releaseSeats(SeatHold hold) {
+        seatInventory.releaseSeats(hold.getFlightId(), hold.getSeatNumbers());
+        eventPublisher.publishEvent(new FlightChangedEvent(hold.getFlightId(), FlightChangedEvent.Change.SEATS_RELEASED));
+        outboxService.seatsReleased(hold);
+    }
+
+    private void cancelExpiry(String holdId) {
+        HashedTimerWheel.Timeout expiry = expiries.remove(holdId);
+        if (expiry != null) {
+            expiry.cancel();
+        }
+    }
+
+    // An expired hold counts as gone even before its seats have been given back
+    private SeatHold owned(Optional<SeatHold> found, String holdId, Long userId) {
+        SeatHold hold = found
+                .filter(candidate -> !candidate.isExpired(LocalDateTime.now()))
+                .orElseThrow(() -> new HoldNotFoundException("Hold not found or expired: " + holdId));
+        if (!hold.getUserId().equals(userId)) {
+            throw new UnauthorizedAccessException("User " + userId + " attempted to access hold " + holdId + " owned by user " + hold.getUserId());
+        }
+        return hold;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("booking.holds", "outcome", outcome).increment();
+    }
+}
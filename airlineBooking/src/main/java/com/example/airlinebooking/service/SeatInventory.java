@@ -0,0 +1,63 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.SeatMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+// Owns seat allocation and release for flights. Depending on inventory.mode the flights
+// table is either updated directly (database) or kept current by write-behind from an
+// in-process engine (memory).
+public interface SeatInventory {
+
+    // Returned by reserve when no seat could be taken
+    int NO_SEAT = 0;
+
+    // Takes the next free seat - NO_SEAT when the flight is sold out or does not exist
+    int reserve(Long flightId);
+
+    // Takes count seats at once, or none - empty when fewer are free or the flight does not exist
+    List<Integer> reserveSeats(Long flightId, int count);
+
+    // Takes seats on several flights at once, or none - keyed by flight id, empty on any shortfall
+    Map<Long, List<Integer>> reserveGroup(SortedMap<Long, Integer> seatsByFlight);
+
+    // Takes a specific seat - false when it is already taken or not on the flight
+    boolean reserve(Long flightId, int seatNumber);
+
+    // Whether every seat is currently taken - locks the flight row until commit in database mode
+    boolean areTaken(Long flightId, List<Integer> seatNumbers);
+
+    // Gives the seat back once the surrounding transaction commits
+    void release(Long flightId, int seatNumber);
+
+    // Gives several seats on one flight back together
+    void releaseSeats(Long flightId, List<Integer> seatNumbers);
+
+    // Current number of free seats, given the count stored in the flights table
+    int availableSeats(Long flightId, int storedSeats);
+
+    // Current number of free seats for the flight
+    default int availableSeats(Flight flight) {
+        return availableSeats(flight.getId(), flight.getAvailableSeats());
+    }
+
+    // Snapshot of which seats are taken
+    SeatMap seatMap(Flight flight);
+
+    // Applies a capacity change and returns the resulting number of free seats
+    int changeCapacity(Flight flight, int newCapacity);
+
+    // Writes pending availability changes through to the flights table
+    void flush();
+
+    // Drops any state kept for a flight that no longer exists, such as an archived one
+    default void forget(Long flightId) {
+    }
+
+    default boolean hasAvailableSeats(Flight flight) {
+        return availableSeats(flight) > 0;
+    }
+}
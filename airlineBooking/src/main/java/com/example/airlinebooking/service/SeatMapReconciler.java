@@ -0,0 +1,178 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.SeatHold;
+import com.example.airlinebooking.model.SeatMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rebuilds flights' seat maps and free seat counts from their active bookings and open seat
+// holds - those tables are the source of truth. Bookings made before seat maps existed (or that
+// collide on a seat) are given the next free seat. reconcile() rewrites every flight in bulk
+// without locks, for an inventory that owns the seats in memory; repair() goes flight by flight
+// under the row lock for inventories that share the flights table with running instances.
+@Component
+public class SeatMapReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapReconciler.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public SeatMapReconciler(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${inventory.flush-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    // Returns the reconciled seat map of every flight, keyed by flight id
+    public Map<Long, SeatMap> reconcile() {
+        Map<Long, SeatMap> seatMaps = new HashMap<>();
+        Map<Long, StoredSeats> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT id, capacity, available_seats, seat_map FROM flights", rs -> {
+            long id = rs.getLong("id");
+            seatMaps.put(id, SeatMap.empty(rs.getInt("capacity")));
+            stored.put(id, new StoredSeats(rs.getInt("available_seats"), rs.getBytes("seat_map")));
+        });
+
+        // Oldest booking keeps a contested seat
+        List<long[]> unseated = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, flight_id, seat_number FROM bookings WHERE status <> 'CANCELLED' ORDER BY id", rs -> {
+            SeatMap seatMap = seatMaps.get(rs.getLong("flight_id"));
+            if (seatMap == null) {
+                return;
+            }
+            int seatNumber = rs.getInt("seat_number");
+            if (rs.wasNull() || !seatMap.take(seatNumber)) {
+                unseated.add(new long[]{rs.getLong("id"), rs.getLong("flight_id")});
+            }
+        });
+
+        // Held seats stay taken until the hold is confirmed, released or swept
+        jdbcTemplate.query("SELECT id, flight_id, seat_numbers FROM seat_holds", rs -> {
+            SeatMap seatMap = seatMaps.get(rs.getLong("flight_id"));
+            if (seatMap == null) {
+                return;
+            }
+            takeHeldSeats(seatMap, rs.getString("id"), rs.getString("seat_numbers"));
+        });
+
+        List<Object[]> seatAssignments = new ArrayList<>();
+        for (long[] booking : unseated) {
+            int seatNumber = seatMaps.get(booking[1]).takeNextFree();
+            if (seatNumber == SeatInventory.NO_SEAT) {
+                logger.warn("Booking {} on overbooked flight {} could not be given a seat", booking[0], booking[1]);
+                continue;
+            }
+            seatAssignments.add(new Object[]{seatNumber, booking[0]});
+        }
+
+        List<Object[]> flightUpdates = new ArrayList<>();
+        seatMaps.forEach((flightId, seatMap) -> {
+            StoredSeats current = stored.get(flightId);
+            byte[] bits = seatMap.toBytes();
+            if (current.availableSeats != seatMap.availableSeats() || !Arrays.equals(current.seatMap, bits)) {
+                flightUpdates.add(new Object[]{Math.max(seatMap.availableSeats(), 0), bits, flightId});
+            }
+        });
+
+        batchUpdate("UPDATE bookings SET seat_number = ? WHERE id = ?", seatAssignments);
+        batchUpdate("UPDATE flights SET available_seats = ?, seat_map = ? WHERE id = ?", flightUpdates);
+        logger.info("Seat maps reconciled for {} flights ({} corrected, {} bookings given a seat)",
+                seatMaps.size(), flightUpdates.size(), seatAssignments.size());
+        return seatMaps;
+    }
+
+    // Each flight is locked in its own short transaction, so bookings on other flights carry on;
+    // only a flight whose stored seats disagree is written, with a version bump so a booking
+    // that read it earlier fails its version check instead of overwriting the repair
+    public void repair() {
+        List<Long> flightIds = jdbcTemplate.queryForList("SELECT id FROM flights ORDER BY id", Long.class);
+        int repaired = 0;
+        for (Long flightId : flightIds) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> repair(flightId)))) {
+                repaired++;
+            }
+        }
+        logger.info("Seat maps checked for {} flights ({} repaired)", flightIds.size(), repaired);
+    }
+
+    private boolean repair(long flightId) {
+        List<StoredFlight> locked = jdbcTemplate.query(
+                "SELECT capacity, available_seats, seat_map FROM flights WHERE id = ? FOR UPDATE",
+                (rs, rowNum) -> new StoredFlight(rs.getInt("capacity"),
+                        new StoredSeats(rs.getInt("available_seats"), rs.getBytes("seat_map"))),
+                flightId);
+        if (locked.isEmpty()) {
+            return false;
+        }
+        SeatMap seatMap = SeatMap.empty(locked.get(0).capacity());
+
+        List<Long> unseated = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, seat_number FROM bookings WHERE flight_id = ? AND status <> 'CANCELLED' ORDER BY id", rs -> {
+            int seatNumber = rs.getInt("seat_number");
+            if (rs.wasNull() || !seatMap.take(seatNumber)) {
+                unseated.add(rs.getLong("id"));
+            }
+        }, flightId);
+        jdbcTemplate.query("SELECT id, seat_numbers FROM seat_holds WHERE flight_id = ?",
+                rs -> {
+                    takeHeldSeats(seatMap, rs.getString("id"), rs.getString("seat_numbers"));
+                }, flightId);
+
+        List<Object[]> seatAssignments = new ArrayList<>();
+        for (Long bookingId : unseated) {
+            int seatNumber = seatMap.takeNextFree();
+            if (seatNumber == SeatInventory.NO_SEAT) {
+                logger.warn("Booking {} on overbooked flight {} could not be given a seat", bookingId, flightId);
+                continue;
+            }
+            seatAssignments.add(new Object[]{seatNumber, bookingId});
+        }
+
+        StoredSeats current = locked.get(0).seats();
+        byte[] bits = seatMap.toBytes();
+        if (seatAssignments.isEmpty() && current.availableSeats == seatMap.availableSeats()
+                && Arrays.equals(current.seatMap, bits)) {
+            return false;
+        }
+        batchUpdate("UPDATE bookings SET seat_number = ? WHERE id = ?", seatAssignments);
+        jdbcTemplate.update("UPDATE flights SET available_seats = ?, seat_map = ?, version = version + 1 WHERE id = ?",
+                Math.max(seatMap.availableSeats(), 0), bits, flightId);
+        logger.warn("Repaired seat map of flight {} ({} bookings given a seat)", flightId, seatAssignments.size());
+        return true;
+    }
+
+    // Held seats stay taken until the hold is confirmed, released or swept
+    private void takeHeldSeats(SeatMap seatMap, String holdId, String seatNumbers) {
+        for (int seatNumber : SeatHold.parse(seatNumbers)) {
+            if (!seatMap.take(seatNumber)) {
+                logger.warn("Seat {} of hold {} is also booked", seatNumber, holdId);
+            }
+        }
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+    }
+
+    private record StoredSeats(int availableSeats, byte[] seatMap) {
+    }
+
+    private record StoredFlight(int capacity, StoredSeats seats) {
+    }
+}
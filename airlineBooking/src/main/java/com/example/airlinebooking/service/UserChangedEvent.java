@@ -0,0 +1,16 @@
+package com.example.airlinebooking.service;
+
+// Published when a user's email changes or the account is deleted, so cached principals
+// are dropped once the change commits
+public class UserChangedEvent {
+
+    private final Long userId;
+
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -2,87 +2,113 @@ package com.example.airlinebooking.service;
 
 import com.example.airlinebooking.model.User;
 import com.example.airlinebooking.repository.UserRepository;
-import com.example.airlinebooking.repository.BookingRepository;
 import com.example.airlinebooking.exception.UserAlreadyExistsException;
 import com.example.airlinebooking.exception.InvalidCredentialsException;
 import com.example.airlinebooking.exception.UserNotFoundException;
 import com.example.airlinebooking.exception.UnauthorizedAccessException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
+// Password hashing waits for a PasswordHasher thread and then runs BCrypt, so it never
+// happens inside a transaction: during a login storm the waiting requests must not hold
+// database connections that bookings need. Methods that hash read and write in short
+// transactions of their own around it.
 @Service
-@Transactional
 public class UserService {
     private final UserRepository userRepository;
-    private final BookingRepository bookingRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final BookingService bookingService;
+    private final PasswordHasher passwordHasher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
-    public UserService(UserRepository userRepository, BookingRepository bookingRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, BookingService bookingService, PasswordHasher passwordHasher,
+                       ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
-        this.bookingRepository = bookingRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.bookingService = bookingService;
+        this.passwordHasher = passwordHasher;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public User createUser(User user) {
-        // Check if user already exists
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new UserAlreadyExistsException("User with email " + user.getEmail() + " already exists");
-        }
-        
-        // Hash the password before saving
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        // Check if user already exists - before spending a hash on the request
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.findByEmail(user.getEmail()).isPresent()) {
+                throw new UserAlreadyExistsException("User with email " + user.getEmail() + " already exists");
+            }
+        });
+
+        // Hash the password before saving; the unique email column catches a concurrent registration
+        user.setPassword(passwordHasher.encode(user.getPassword()));
+        return transactionTemplate.execute(status -> userRepository.save(user));
     }
 
     public User authenticateUser(String email, String password) {
-        User user = userRepository.findByEmail(email)
+        User user = transactionTemplate.execute(status -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
-        
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+
+        if (!passwordHasher.matches(password, user.getPassword())) {
             throw new InvalidCredentialsException("Invalid email or password");
         }
-        
+
+        // Only a successful login knows the raw password, so this is where a raised cost factor lands
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.encode(password));
+            transactionTemplate.executeWithoutResult(status -> userRepository.save(user));
+        }
+
         return user;
     }
 
+    @Transactional
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
+    @Transactional
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
 
     public User updateUser(Long userId, String newEmail, String newPassword) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
-        
-        // Check if new email is already taken by another user
-        if (!user.getEmail().equals(newEmail)) {
-            userRepository.findByEmail(newEmail)
-                    .ifPresent(existingUser -> {
-                        throw new UserAlreadyExistsException("Email already taken: " + newEmail);
-                    });
-        }
-        
-        // Update email and password
-        user.setEmail(newEmail);
-        user.setPassword(passwordEncoder.encode(newPassword));
-        
-        return userRepository.save(user);
+        String passwordHash = passwordHasher.encode(newPassword);
+
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
+
+            // Check if new email is already taken by another user
+            if (!user.getEmail().equals(newEmail)) {
+                userRepository.findByEmail(newEmail)
+                        .ifPresent(existingUser -> {
+                            throw new UserAlreadyExistsException("Email already taken: " + newEmail);
+                        });
+            }
+
+            // Update email and password
+            user.setEmail(newEmail);
+            user.setPassword(passwordHash);
+
+            User saved = userRepository.save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(userId));
+            return saved;
+        });
     }
 
+    @Transactional
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         
-        // Delete all bookings for this user first
-        bookingRepository.deleteByUser(user);
+        // Delete all bookings for this user first, through the service that keeps stats and outbox in step
+        bookingService.deleteUserBookings(user);
         
         // Then delete the user
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
     }
 } 
\ No newline at end of file
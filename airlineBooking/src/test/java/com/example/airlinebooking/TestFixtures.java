@@ -0,0 +1,66 @@
+package com.example.airlinebooking;
+
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.repository.UserRepository;
+import com.example.airlinebooking.service.FlightService;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Users and flights for the @SpringBootTest classes, which all share one database. Emails are
+// unique per call; give each test its own airport() origin so its flights form their own route.
+@Component
+public class TestFixtures {
+
+    private final FlightService flightService;
+    private final UserRepository userRepository;
+
+    public TestFixtures(FlightService flightService, UserRepository userRepository) {
+        this.flightService = flightService;
+        this.userRepository = userRepository;
+    }
+
+    public static String airport(String prefix) {
+        return prefix + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+    }
+
+    public User createUser(String prefix) {
+        return userRepository.save(newUser(prefix, 0));
+    }
+
+    public List<User> createUsers(String prefix, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(newUser(prefix, i));
+        }
+        return userRepository.saveAll(users);
+    }
+
+    // To LHR in ten days
+    public Flight createFlight(String origin, int capacity) {
+        return createFlight(origin, "LHR", LocalDateTime.now().plusDays(10), capacity);
+    }
+
+    public Flight createFlight(String origin, String destination, LocalDateTime departure, int capacity) {
+        return flightService.createFlight(newFlight(origin, destination, departure, capacity));
+    }
+
+    // Not saved, for passing to the service as a new or changed flight
+    public static Flight newFlight(String origin, String destination, LocalDateTime departure, int capacity) {
+        Flight flight = new Flight();
+        flight.setOrigin(origin);
+        flight.setDestination(destination);
+        flight.setDepartureTime(departure);
+        flight.setArrivalTime(departure.plusHours(2));
+        flight.setCapacity(capacity);
+        return flight;
+    }
+
+    private static User newUser(String prefix, int index) {
+        return new User(null, prefix + "-" + index + "-" + UUID.randomUUID() + "@example.com", "Test User", "hashedPassword");
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.airlinebooking.benchmark;
+
+import com.example.airlinebooking.AirlineBookingApplication;
+import com.example.airlinebooking.model.*;
+import com.example.airlinebooking.repository.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Time to insert 100k bookings in one transaction, both through Hibernate:
+//   identity - Booking mapped back to an IDENTITY id (benchmark/identity-ids-orm.xml) and saved
+//              with saveAll, the path before pooled sequences: one INSERT round trip per row
+//   sequence - pooled sequence ids and saveAllInBatches: JDBC batches of 50
+//
+// Run against the embedded H2 test database:
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.airlinebooking.benchmark.BulkInsertBenchmark
+// H2 runs in process, so it hides most of the round trips batching saves - point
+// spring.datasource.* at Postgres (system properties) for numbers that include the network.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int BOOKINGS = 100_000;
+
+    @Param({"identity", "sequence"})
+    public String ids;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private BookingRepository bookingRepository;
+    private User user;
+    private Flight flight;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(AirlineBookingApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.generate_statistics=false");
+        if (ids.equals("identity")) {
+            builder.properties("spring.jpa.mapping-resources=benchmark/identity-ids-orm.xml");
+        }
+        context = builder.run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+
+        user = context.getBean(UserRepository.class).save(new User(null,
+                "bench-" + UUID.randomUUID() + "@example.com", "Benchmark User", "hashedPassword"));
+        Flight newFlight = new Flight();
+        newFlight.setOrigin("DUB");
+        newFlight.setDestination("JFK");
+        newFlight.setDepartureTime(LocalDateTime.now().plusDays(30));
+        newFlight.setArrivalTime(LocalDateTime.now().plusDays(30).plusHours(8));
+        newFlight.setCapacity(SeatMap.MAX_CAPACITY);
+        newFlight.setAvailableSeats(SeatMap.MAX_CAPACITY);
+        flight = context.getBean(FlightRepository.class).save(newFlight);
+    }
+
+    // Each measurement starts from an empty table
+    @Setup(Level.Invocation)
+    public void clearBookings() {
+        jdbcTemplate.update("DELETE FROM bookings");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insertBookings() {
+        List<Booking> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setUser(user);
+            booking.setFlight(flight);
+            booking.setStatus(BookingStatus.CONFIRMED);
+            booking.setSeatNumber(i % SeatMap.MAX_CAPACITY + 1);
+            bookings.add(booking);
+        }
+        return transactionTemplate.execute(status -> ids.equals("identity")
+                ? bookingRepository.saveAll(bookings).size()
+                : bookingRepository.saveAllInBatches(bookings).size());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
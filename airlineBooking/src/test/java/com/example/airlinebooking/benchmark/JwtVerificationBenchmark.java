@@ -0,0 +1,68 @@
+package com.example.airlinebooking.benchmark;
+
+import com.example.airlinebooking.util.JwtUtil;
+import com.example.airlinebooking.util.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating one request: the old filter path, which rebuilt the key and parser
+// and parsed the token three times (subject, subject again, expiry), against JwtVerifier.
+//
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.airlinebooking.benchmark.JwtVerificationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-airline-booking-0123456789";
+
+    private JwtVerifier jwtVerifier;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtVerifier = new JwtVerifier(SECRET, new SimpleMeterRegistry());
+        token = new JwtUtil(SECRET).generateToken("bench@example.com", 1L);
+    }
+
+    @Benchmark
+    public boolean previousFilterPath() {
+        // extractUsername, then validateToken: extractUsername again plus extractExpiration
+        String username = legacyClaims(token).getSubject();
+        String extractedUsername = legacyClaims(token).getSubject();
+        return extractedUsername.equals(username) && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public JwtVerifier.VerifiedToken jwtVerifier() {
+        return jwtVerifier.verify(token);
+    }
+
+    // What every extract* call used to do
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
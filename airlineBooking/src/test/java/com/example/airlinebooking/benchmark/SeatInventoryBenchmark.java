@@ -0,0 +1,134 @@
+package com.example.airlinebooking.benchmark;
+
+import com.example.airlinebooking.AirlineBookingApplication;
+import com.example.airlinebooking.model.*;
+import com.example.airlinebooking.repository.*;
+import com.example.airlinebooking.service.DatabaseSeatInventory;
+import com.example.airlinebooking.service.SeatInventory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Bookings/sec on one hot flight: the original JPA read-modify-write save path, the
+// PESSIMISTIC_WRITE row lock on the flight that picks a seat from its seat map
+// (inventory.mode=database) and the in-memory engine (inventory.mode=memory).
+//
+// Run against the embedded H2 test database:
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.airlinebooking.benchmark.SeatInventoryBenchmark
+// Point spring.datasource.* at Postgres (system properties) to measure real row-lock latency.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class SeatInventoryBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private FlightRepository flightRepository;
+    private BookingRepository bookingRepository;
+    private SeatInventory memoryInventory;
+    private SeatInventory databaseInventory;
+    private User user;
+    private Long jpaFlightId;
+    private Long databaseFlightId;
+    private Long memoryFlightId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AirlineBookingApplication.class)
+                .properties("inventory.mode=memory", "server.port=0", "logging.level.root=WARN")
+                .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        flightRepository = context.getBean(FlightRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        memoryInventory = context.getBean(SeatInventory.class);
+        databaseInventory = context.getAutowireCapableBeanFactory().createBean(DatabaseSeatInventory.class);
+
+        user = context.getBean(UserRepository.class).save(new User(null,
+                "bench-" + UUID.randomUUID() + "@example.com", "Benchmark User", "hashedPassword"));
+    }
+
+    // Fresh flights per iteration so no path ever runs into a sold-out aircraft
+    @Setup(Level.Iteration)
+    public void createFlights() {
+        jpaFlightId = createFlight();
+        databaseFlightId = createFlight();
+        memoryFlightId = createFlight();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Booking jpaSavePath() {
+        // Load, mutate and save the flight - retried on version conflicts like the services do
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Flight flight = flightRepository.findById(jpaFlightId).orElseThrow();
+                    flight.reserveSeat();
+                    flightRepository.save(flight);
+                    return bookingRepository.save(newBooking(flight, null));
+                });
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // lost the race for the flight row
+            }
+        }
+    }
+
+    @Benchmark
+    public Booking databaseInventory() {
+        return transactionTemplate.execute(status -> {
+            int seatNumber = databaseInventory.reserve(databaseFlightId);
+            return bookingRepository.save(newBooking(flightRepository.getReferenceById(databaseFlightId), seatNumber));
+        });
+    }
+
+    @Benchmark
+    public Booking memoryInventory() {
+        return transactionTemplate.execute(status -> {
+            int seatNumber = memoryInventory.reserve(memoryFlightId);
+            return bookingRepository.save(newBooking(flightRepository.getReferenceById(memoryFlightId), seatNumber));
+        });
+    }
+
+    private Booking newBooking(Flight flight, Integer seatNumber) {
+        Booking booking = new Booking();
+        booking.setSeatNumber(seatNumber);
+        booking.setUser(user);
+        booking.setFlight(flight);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return booking;
+    }
+
+    private Long createFlight() {
+        Flight flight = new Flight();
+        flight.setOrigin("DUB");
+        flight.setDestination("JFK");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(30));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(30).plusHours(8));
+        flight.setCapacity(SeatMap.MAX_CAPACITY);
+        flight.setAvailableSeats(SeatMap.MAX_CAPACITY);
+        return flightRepository.save(flight).getId();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SeatInventoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.airlinebooking.config;
+
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.SeatMap;
+import com.example.airlinebooking.repository.FlightRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own database, so the generator starts from empty tables
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "loadtest.airports=20",
+        "loadtest.flights=2000",
+        "loadtest.users=500",
+        "loadtest.bookings=30000",
+        "loadtest.batch-size=100"
+})
+@ActiveProfiles("loadtest")
+class LoadTestDataGeneratorTest {
+
+    private static final LocalDate ANCHOR = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Test
+    void testGenerator_WritesConsistentRows() {
+        // Assert - row counts, and every seat map agrees with the confirmed bookings
+        assertEquals(500L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+        assertEquals(2000L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM flights", Long.class));
+        assertEquals(30000L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Long.class));
+        Long mismatched = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flights f WHERE f.capacity - f.available_seats <> " +
+                "(SELECT COUNT(*) FROM bookings b WHERE b.flight_id = f.id AND b.status = 'CONFIRMED')", Long.class);
+        assertEquals(0L, mismatched);
+        Long doubleBooked = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT user_id, flight_id FROM bookings GROUP BY user_id, flight_id HAVING COUNT(*) > 1) d",
+                Long.class);
+        assertEquals(0L, doubleBooked);
+        Flight flight = flightRepository.findById(1L).orElseThrow();
+        assertEquals(flight.getAvailableSeats(), SeatMap.of(flight).availableSeats());
+    }
+
+    @Test
+    @Transactional
+    void testGenerator_SequencesContinueAfterGeneratedIds() {
+        // Act
+        Flight flight = new Flight();
+        flight.setOrigin("AAA");
+        flight.setDestination("BBB");
+        flight.setDepartureTime(ANCHOR.atTime(9, 0));
+        flight.setArrivalTime(ANCHOR.atTime(11, 0));
+        flight.setCapacity(100);
+        flight.setAvailableSeats(100);
+        Flight saved = flightRepository.save(flight);
+
+        // Assert
+        assertTrue(saved.getId() > 2000);
+    }
+
+    @Test
+    void testPlan_SameSeedSameRows() {
+        // Arrange
+        LoadTestPlan first = plan(7);
+        LoadTestPlan second = plan(7);
+        LoadTestPlan other = plan(8);
+
+        // Assert
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.flight(i), second.flight(i));
+            assertEquals(first.user(i, 3), second.user(i, 3));
+            assertArrayEquals(first.cancellations(i, 50), second.cancellations(i, 50));
+        }
+        assertArrayEquals(first.bookingCounts(), second.bookingCounts());
+        assertNotEquals(first.flight(0), other.flight(0));
+    }
+
+    @Test
+    void testPlan_RealisticShape() {
+        // Arrange
+        LoadTestPlan plan = plan(42);
+
+        // Act
+        int[] counts = plan.bookingCounts();
+
+        // Assert - no flight overbooked, and the busiest tenth carries far more than a tenth
+        assertEquals(20000, IntStream.of(counts).sum());
+        for (int i = 0; i < counts.length; i++) {
+            LoadTestPlan.FlightRow flight = plan.flight(i);
+            assertTrue(counts[i] <= flight.capacity());
+            assertNotEquals(flight.origin(), flight.destination());
+            assertTrue(flight.departureTime().isBefore(flight.arrivalTime()));
+            assertFalse(flight.departureTime().toLocalDate().isBefore(ANCHOR.minusDays(30)));
+            assertTrue(flight.departureTime().toLocalDate().isBefore(ANCHOR.plusDays(180)));
+        }
+        int[] sorted = IntStream.of(counts).sorted().toArray();
+        int busiestTenth = Arrays.stream(sorted, sorted.length * 9 / 10, sorted.length).sum();
+        assertTrue(busiestTenth > 20000 * 0.3, "busiest tenth holds " + busiestTenth);
+    }
+
+    private static LoadTestPlan plan(long seed) {
+        return new LoadTestPlan(seed, 50, 1000, 300, 20000, ANCHOR, 30, 180, 1.0, 0.8, 0.05);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.airlinebooking.config;
+
+import com.example.airlinebooking.model.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two in-memory databases stand in for the primary and a replica; each names itself
+class ReadReplicaConfigTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReadReplicas readReplicas;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = ReadReplicas.pool(url("replica"), "sa", "", 2, 250);
+        new JdbcTemplate(replica).execute("CREATE TABLE server (name VARCHAR(20))");
+        new JdbcTemplate(replica).update("INSERT INTO server VALUES ('replica')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (readReplicas != null) {
+            readReplicas.close();
+        }
+    }
+
+    @Test
+    void testRouting_ReadOnlyTransactionsUseReplica() {
+        // Arrange
+        DataSource routing = routing(List.of(replica));
+
+        // Act & Assert
+        assertEquals("replica", serverName(routing, true));
+        assertEquals("primary", serverName(routing, false));
+    }
+
+    @Test
+    void testRouting_UnreachableReplicaFailsOverToPrimary() {
+        // Arrange
+        DataSource unreachable = ReadReplicas.pool("jdbc:h2:tcp://localhost:1/missing", "sa", "", 2, 250);
+        DataSource routing = routing(List.of(unreachable));
+
+        // Act
+        String server = serverName(routing, true);
+
+        // Assert - taken out until a health check finds it again
+        assertEquals("primary", server);
+        assertFalse(readReplicas.replicas().get(0).healthy().get());
+        readReplicas.checkHealth();
+        assertFalse(readReplicas.replicas().get(0).healthy().get());
+    }
+
+    @Test
+    void testRouting_HealthCheckBringsReplicaBack() {
+        // Arrange
+        DataSource routing = routing(List.of(replica));
+        readReplicas.replicas().get(0).healthy().set(false);
+        assertEquals("primary", serverName(routing, true));
+
+        // Act
+        readReplicas.checkHealth();
+
+        // Assert
+        assertEquals("replica", serverName(routing, true));
+    }
+
+    @Test
+    void testRouting_UserReadsOwnWritesFromPrimary() {
+        // Arrange
+        DataSource routing = routing(List.of(replica));
+        readReplicas.recordWrite(1L);
+
+        // Act & Assert - only the user who wrote is pinned
+        signIn(1L);
+        assertEquals("primary", serverName(routing, true));
+        signIn(2L);
+        assertEquals("replica", serverName(routing, true));
+    }
+
+    @Test
+    void testRouting_CommittedWritePinsUserToPrimary() {
+        // Arrange
+        DataSource routing = routing(List.of(replica));
+        signIn(1L);
+        TransactionTemplate rolledBack = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        rolledBack.executeWithoutResult(status -> {
+            new JdbcTemplate(routing).update("UPDATE server SET name = name");
+            status.setRollbackOnly();
+        });
+        assertEquals("replica", serverName(routing, true));
+
+        // Act
+        serverName(routing, false);
+
+        // Assert - recorded by the commit itself, before any response is written
+        assertEquals("primary", serverName(routing, true));
+        signIn(2L);
+        assertEquals("replica", serverName(routing, true));
+    }
+
+    private DataSource routing(List<DataSource> replicas) {
+        readReplicas = new ReadReplicas(replicas, 60_000, 10_000,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        return ReadReplicaConfig.routing(primary, readReplicas);
+    }
+
+    private static String serverName(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM server", String.class));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(url(name), "sa", "");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE server (name VARCHAR(20))");
+        new JdbcTemplate(dataSource).update("INSERT INTO server VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static void signIn(Long userId) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(userId, "user" + userId + "@example.com"), null, Collections.emptyList()));
+    }
+}
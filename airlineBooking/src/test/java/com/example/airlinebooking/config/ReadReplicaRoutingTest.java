@@ -0,0 +1,96 @@
+package com.example.airlinebooking.config;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.service.BookingService;
+import com.example.airlinebooking.service.FlightService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The same routing through JpaTransactionManager and Hibernate, as the application runs it.
+// The replica is the primary's own database, so a counter on its pool tells the reads apart.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:airline_booking_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "datasource.replicas.urls=jdbc:h2:mem:airline_booking_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "datasource.replicas.health-check-interval-ms=3600000"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private ReadReplicas readReplicas;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private final AtomicInteger replicaConnections = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReadReplicas.Replica replica = readReplicas.replicas().get(0);
+        readReplicas.replicas().set(0, new ReadReplicas.Replica(replica.name(),
+                new DelegatingDataSource(replica.dataSource()) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        replicaConnections.incrementAndGet();
+                        return super.getConnection();
+                    }
+                }, new AtomicBoolean(true)));
+    }
+
+    @Test
+    void testRouting_ReadOnlyServiceCallReachesReplica() {
+        // Arrange
+        User user = fixtures.createUser("replica");
+        replicaConnections.set(0);
+
+        // Act
+        bookingService.getUserBookings(user.getId());
+
+        // Assert
+        assertEquals(1, replicaConnections.get());
+    }
+
+    @Test
+    void testRouting_ReadWriteServiceCallStaysOnPrimary() {
+        // Arrange
+        replicaConnections.set(0);
+
+        // Act
+        fixtures.createUser("replica");
+
+        // Assert
+        assertEquals(0, replicaConnections.get());
+    }
+
+    @Test
+    void testRouting_CacheFillStaysOnPrimary() {
+        // Arrange - creating the flight evicts any cached entry for it
+        Flight flight = fixtures.createFlight("REP", 10);
+        replicaConnections.set(0);
+
+        // Act
+        flightService.getFlightById(flight.getId());
+        flightService.getAllFlights();
+        flightService.getAvailableFlights();
+
+        // Assert
+        assertEquals(0, replicaConnections.get());
+    }
+}
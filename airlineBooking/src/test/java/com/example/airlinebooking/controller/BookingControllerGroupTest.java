@@ -0,0 +1,51 @@
+package com.example.airlinebooking.controller;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.service.FlightService;
+import com.example.airlinebooking.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingControllerGroupTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void testCreateGroupBooking_RepeatedFlightRejected() throws Exception {
+        // Arrange - two legs of 9 on one flight would book 18 seats past the per-flight limit
+        Flight flight = fixtures.createFlight("GRP", 50);
+        User user = fixtures.createUser("group");
+        String leg = "{\"flightId\":" + flight.getId() + ",\"passengers\":9}";
+
+        // Act & Assert
+        mockMvc.perform(post("/api/bookings/group")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"flights\":[" + leg + "," + leg + "]}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(50, flightService.getFlightById(flight.getId()).getAvailableSeats());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.airlinebooking.controller;
+
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.service.FlightService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FlightControllerEtagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Test
+    void testGetAvailableFlights_MatchingEtagReturnsNotModified() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/flights/available"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/flights/available").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetAllFlights_FlightChangeInvalidatesEtag() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/flights"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        Flight flight = new Flight();
+        flight.setOrigin("SNN");
+        flight.setDestination("BOS");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(5));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(5).plusHours(6));
+        flight.setCapacity(180);
+        flightService.createFlight(flight);
+
+        // Assert
+        String newEtag = mockMvc.perform(get("/api/flights").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.airlinebooking.controller;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FlightControllerImportTest {
+
+    private static final String ROW = "{\"origin\":\"IMP\",\"destination\":\"LHR\","
+            + "\"departureTime\":\"2031-05-01T08:00:00\",\"arrivalTime\":\"2031-05-01T10:00:00\",\"capacity\":50}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void testImportFlights_AnonymousCallerRejected() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/flights/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ROW))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testImportFlights_SignedInCallerAllowed() throws Exception {
+        // Arrange
+        User user = fixtures.createUser("importer");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/flights/import")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(user.getEmail(), user.getId()))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ROW))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(1));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.airlinebooking.repository;
+
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.BookingStatus;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Relies on jdbc.batch_size=50 in the test configuration; statistics are only on during the test
+@SpringBootTest
+class BatchSaveRepositoryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testSaveAllInBatches_InsertsInJdbcBatches() {
+        // Arrange
+        Flight flight = createFlight();
+        User user = userRepository.save(new User(null, "batch-" + UUID.randomUUID() + "@example.com", "Batch User", "hashedPassword"));
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            Booking booking = new Booking();
+            booking.setUser(user);
+            booking.setFlight(flight);
+            booking.setStatus(BookingStatus.CONFIRMED);
+            booking.setSeatNumber(i);
+            bookings.add(booking);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+
+        // Act
+        List<Booking> saved;
+        try {
+            saved = bookingRepository.saveAllInBatches(bookings);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Assert - 10 batches of 50 inserts, plus 10 sequence calls for blocks of 50 ids
+        assertEquals(500, saved.stream().map(Booking::getId).filter(Objects::nonNull).distinct().count());
+        assertEquals(500, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 25,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(500, bookingRepository.countByFlightAndStatus(flight, BookingStatus.CONFIRMED));
+    }
+
+    private Flight createFlight() {
+        Flight flight = new Flight();
+        flight.setOrigin("DUB");
+        flight.setDestination("LHR");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(7));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(7).plusHours(1));
+        flight.setCapacity(500);
+        flight.setAvailableSeats(500);
+        return flightRepository.save(flight);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.OutboxEvent;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Printing would read the response headers while sender threads are still writing to it
+@SpringBootTest
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class AvailabilityStreamTest {
+
+    private static final Pattern EVENT = Pattern.compile(
+            "event:availability\\nid:(\\d+)\\ndata:\\{\"flightId\":(\\d+),.*?\"availableSeats\":(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AvailabilityStream availabilityStream;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Unique per test so flights created by other tests never match a route
+    private String origin;
+    // Unique per test, as the streams of earlier tests stay open against the per-client limit
+    private String client;
+
+    @BeforeEach
+    void setUp() {
+        origin = TestFixtures.airport("S");
+        client = "client-" + origin;
+    }
+
+    @Test
+    void testStream_FlightSubscriptionGetsSnapshotThenOneCoalescedDelta() throws Exception {
+        // Arrange
+        Flight flight = fixtures.createFlight(origin, "LHR", LocalDateTime.now().plusDays(20), 10);
+        MockHttpServletResponse response = subscribe("/api/flights/availability/stream?flightIds=" + flight.getId());
+        List<long[]> snapshot = awaitEvents(response, 1);
+        assertEquals(10, snapshot.get(0)[2]);
+
+        // Act - three bookings within one interval
+        for (int i = 0; i < 3; i++) {
+            bookingService.createBooking(fixtures.createUser("stream").getId(), flight.getId());
+        }
+        availabilityStream.publish();
+
+        // Assert
+        List<long[]> events = awaitEvents(response, 2);
+        assertEquals(flight.getId(), events.get(1)[1]);
+        assertEquals(7, events.get(1)[2]);
+        assertTrue(events.get(1)[0] > events.get(0)[0]);
+        availabilityStream.publish();
+        Thread.sleep(200);
+        assertEquals(2, events(response).size());
+    }
+
+    @Test
+    void testStream_RouteSubscriptionOnlySeesItsRoute() throws Exception {
+        // Arrange
+        Flight london = fixtures.createFlight(origin, "LHR", LocalDateTime.now().plusDays(20), 10);
+        Flight paris = fixtures.createFlight(origin, "CDG", LocalDateTime.now().plusDays(20), 10);
+        MockHttpServletResponse response = subscribe(
+                "/api/flights/availability/stream?origin=" + origin.toLowerCase() + "&destination=LHR");
+
+        // Act
+        bookingService.createBooking(fixtures.createUser("stream").getId(), paris.getId());
+        bookingService.createBooking(fixtures.createUser("stream").getId(), london.getId());
+        availabilityStream.publish();
+
+        // Assert - no snapshot for a route, and the Paris change is filtered out
+        List<long[]> events = awaitEvents(response, 1);
+        assertEquals(london.getId(), events.get(0)[1]);
+        assertEquals(9, events.get(0)[2]);
+        Thread.sleep(200);
+        assertEquals(1, events(response).size());
+    }
+
+    @Test
+    void testStream_ChangeFromAnotherInstanceArrivesThroughOutbox() throws Exception {
+        // Arrange
+        Flight flight = fixtures.createFlight(origin, "LHR", LocalDateTime.now().plusDays(20), 10);
+        MockHttpServletResponse response = subscribe("/api/flights/availability/stream?origin=" + origin);
+        availabilityStream.publish();
+
+        // Act - another instance sold six seats; only its sequenced outbox event is seen here
+        jdbcTemplate.update("UPDATE flights SET available_seats = 4 WHERE id = ?", flight.getId());
+        OutboxEvent event = new OutboxEvent();
+        event.setType(OutboxEvent.Type.SEATS_HELD);
+        event.setAggregateType("flight");
+        event.setAggregateId(flight.getId());
+        event.setPayload("{\"flightId\":" + flight.getId() + "}");
+        event.setCreatedAt(LocalDateTime.now());
+        event.setPosition(outboxEventRepository.lastPosition() + 1);
+        outboxEventRepository.save(event);
+        availabilityStream.publish();
+
+        // Assert
+        List<long[]> events = awaitEvents(response, 1);
+        assertEquals(flight.getId(), events.get(0)[1]);
+        assertEquals(4, events.get(0)[2]);
+    }
+
+    @Test
+    void testStream_PerClientLimit() throws Exception {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            subscribe("/api/flights/availability/stream?origin=" + origin);
+        }
+
+        // Act & Assert - the sixth stream from the same address is refused, others are not
+        mockMvc.perform(get("/api/flights/availability/stream?origin=" + origin).with(from(client)))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/flights/availability/stream?origin=" + origin).with(from(client + "-other")))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void testStream_TooManyFlightIdsIsBadRequest() throws Exception {
+        // Arrange
+        StringBuilder flightIds = new StringBuilder("1");
+        for (int i = 2; i <= 101; i++) {
+            flightIds.append(',').append(i);
+        }
+
+        // Act & Assert
+        mockMvc.perform(get("/api/flights/availability/stream?flightIds=" + flightIds))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletResponse subscribe(String url) throws Exception {
+        return mockMvc.perform(get(url).with(from(client)))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    // Events are written by the sender pool, so wait for them to show up
+    private List<long[]> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<long[]> events = events(response);
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = events(response);
+        }
+        assertEquals(count, events.size());
+        return events;
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    // Each event as {version, flightId, availableSeats}
+    private static List<long[]> events(MockHttpServletResponse response) throws Exception {
+        List<long[]> events = new ArrayList<>();
+        Matcher matcher = EVENT.matcher(response.getContentAsString());
+        while (matcher.find()) {
+            events.add(new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)),
+                    Long.parseLong(matcher.group(3))});
+        }
+        return events;
+    }
+}
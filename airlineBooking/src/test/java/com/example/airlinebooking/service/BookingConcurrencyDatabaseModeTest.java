@@ -0,0 +1,11 @@
+package com.example.airlinebooking.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Same races against the row-update inventory, on its own database
+@SpringBootTest(properties = {
+        "inventory.mode=database",
+        "spring.datasource.url=jdbc:h2:mem:airline_booking_db_mode;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+})
+class BookingConcurrencyDatabaseModeTest extends BookingConcurrencyTest {
+}
@@ -0,0 +1,282 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.exception.BookingException;
+import com.example.airlinebooking.model.*;
+import com.example.airlinebooking.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the in-memory seat inventory on its own database; flush() pushes its counters to
+// the flights table. BookingConcurrencyDatabaseModeTest runs the same races in database mode.
+@SpringBootTest(properties = {
+        "inventory.mode=memory",
+        "spring.datasource.url=jdbc:h2:mem:airline_booking_memory_mode;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+})
+class BookingConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Test
+    void testConcurrentBookings_NeverOversell() throws Exception {
+        // Arrange - 2000 distinct users racing for 150 seats
+        int capacity = 150;
+        int attempts = 2000;
+        Flight flight = fixtures.createFlight("DUB", capacity);
+        List<User> users = fixtures.createUsers("load", attempts);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        // Act
+        runConcurrently(users, user -> {
+            try {
+                bookingService.createBooking(user.getId(), flight.getId());
+                booked.incrementAndGet();
+            } catch (BookingException e) {
+                soldOut.incrementAndGet();
+            }
+        });
+
+        // Assert
+        seatInventory.flush();
+        Flight result = flightRepository.findById(flight.getId()).orElseThrow();
+        assertEquals(capacity, booked.get());
+        assertEquals(attempts - capacity, soldOut.get());
+        assertEquals(0, result.getAvailableSeats());
+        assertEquals(capacity, bookingRepository.countByFlightAndStatus(result, BookingStatus.CONFIRMED));
+        assertSeatMapMatchesBookings(result);
+    }
+
+    @Test
+    void testConcurrentSeatSelection_EachSeatSoldOnce() throws Exception {
+        // Arrange - 400 users fighting over 50 explicitly chosen seats
+        int capacity = 50;
+        Flight flight = fixtures.createFlight("DUB", capacity);
+        List<User> users = fixtures.createUsers("load", 400);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger taken = new AtomicInteger();
+
+        // Act
+        runConcurrently(users, user -> {
+            int seatNumber = (int) (user.getId() % capacity) + 1;
+            try {
+                bookingService.createBooking(user.getId(), flight.getId(), seatNumber);
+                booked.incrementAndGet();
+            } catch (BookingException e) {
+                taken.incrementAndGet();
+            }
+        });
+
+        // Assert
+        seatInventory.flush();
+        Flight result = flightRepository.findById(flight.getId()).orElseThrow();
+        assertEquals(capacity, booked.get());
+        assertEquals(400 - capacity, taken.get());
+        assertEquals(0, result.getAvailableSeats());
+        assertSeatMapMatchesBookings(result);
+    }
+
+    @Test
+    void testConcurrentCancellations_ReleaseEachSeatOnce() throws Exception {
+        // Arrange - fill the flight, then cancel half of the bookings twice in parallel
+        int capacity = 200;
+        Flight flight = fixtures.createFlight("DUB", capacity);
+        List<User> users = fixtures.createUsers("load", capacity);
+        List<Booking> bookings = new ArrayList<>();
+        for (User user : users) {
+            bookings.add(bookingService.createBooking(user.getId(), flight.getId()));
+        }
+        seatInventory.flush();
+        assertEquals(0, flightRepository.findById(flight.getId()).orElseThrow().getAvailableSeats());
+
+        List<Booking> toCancel = bookings.subList(0, capacity / 2);
+        List<Booking> doubled = new ArrayList<>(toCancel);
+        doubled.addAll(toCancel);
+        AtomicInteger cancelled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // Act
+        runConcurrently(doubled, booking -> {
+            try {
+                bookingService.cancelBooking(booking.getId(), booking.getUser().getId());
+                cancelled.incrementAndGet();
+            } catch (BookingException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        // Assert - each seat comes back exactly once
+        seatInventory.flush();
+        Flight result = flightRepository.findById(flight.getId()).orElseThrow();
+        assertEquals(capacity / 2, cancelled.get());
+        assertEquals(capacity / 2, rejected.get());
+        assertEquals(capacity / 2, result.getAvailableSeats());
+        assertEquals(capacity / 2, bookingRepository.countByFlightAndStatus(result, BookingStatus.CONFIRMED));
+        assertSeatMapMatchesBookings(result);
+    }
+
+    @Test
+    void testConcurrentMoveAndCancel_KeepsSeatCountsExact() throws Exception {
+        // Arrange - every booking is cancelled and moved to another flight at the same time
+        int capacity = 100;
+        Flight from = fixtures.createFlight("DUB", capacity);
+        Flight to = fixtures.createFlight("DUB", capacity);
+        List<User> users = fixtures.createUsers("load", capacity);
+        List<Booking> bookings = new ArrayList<>();
+        for (User user : users) {
+            bookings.add(bookingService.createBooking(user.getId(), from.getId()));
+        }
+
+        List<Runnable> operations = new ArrayList<>();
+        for (Booking booking : bookings) {
+            Long userId = booking.getUser().getId();
+            operations.add(() -> bookingService.cancelBooking(booking.getId(), userId));
+            operations.add(() -> bookingService.updateBooking(booking.getId(), userId, to.getId()));
+        }
+        AtomicInteger unexpected = new AtomicInteger();
+
+        // Act
+        runConcurrently(operations, operation -> {
+            try {
+                operation.run();
+            } catch (BookingException e) {
+                // losing side of a cancel/move race sees the other outcome
+            } catch (RuntimeException e) {
+                unexpected.incrementAndGet();
+            }
+        });
+
+        // Assert - whichever side won, no seat is lost or double counted
+        seatInventory.flush();
+        Flight fromResult = flightRepository.findById(from.getId()).orElseThrow();
+        Flight toResult = flightRepository.findById(to.getId()).orElseThrow();
+        long confirmedOnTarget = bookingRepository.countByFlightAndStatus(toResult, BookingStatus.CONFIRMED);
+        assertEquals(0, unexpected.get());
+        assertEquals(0, bookingRepository.countByFlightAndStatus(fromResult, BookingStatus.CONFIRMED));
+        assertEquals(capacity, fromResult.getAvailableSeats());
+        assertEquals(capacity - confirmedOnTarget, toResult.getAvailableSeats());
+        assertSeatMapMatchesBookings(fromResult);
+        assertSeatMapMatchesBookings(toResult);
+    }
+
+    @Test
+    void testConcurrentGroupBookings_AllOrNothing() throws Exception {
+        // Arrange - 50 groups of 2 want both legs; the return leg only fits 20 of them
+        Flight outbound = fixtures.createFlight("DUB", 60);
+        Flight inbound = fixtures.createFlight("DUB", 40);
+        List<User> users = fixtures.createUsers("load", 50);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        // Act - half the groups list the legs in reverse order
+        runConcurrently(users, user -> {
+            Map<Long, Integer> legs = user.getId() % 2 == 0
+                    ? Map.of(outbound.getId(), 2, inbound.getId(), 2)
+                    : Map.of(inbound.getId(), 2, outbound.getId(), 2);
+            try {
+                bookingService.createGroupBooking(user.getId(), legs);
+                booked.incrementAndGet();
+            } catch (BookingException e) {
+                soldOut.incrementAndGet();
+            }
+        });
+
+        // Assert - a failed group leaves no seat behind on the leg that did fit
+        seatInventory.flush();
+        Flight outboundResult = flightRepository.findById(outbound.getId()).orElseThrow();
+        Flight inboundResult = flightRepository.findById(inbound.getId()).orElseThrow();
+        assertEquals(20, booked.get());
+        assertEquals(30, soldOut.get());
+        assertEquals(20, outboundResult.getAvailableSeats());
+        assertEquals(0, inboundResult.getAvailableSeats());
+        assertSeatMapMatchesBookings(outboundResult);
+        assertSeatMapMatchesBookings(inboundResult);
+    }
+
+    // Every confirmed booking holds a distinct seat and the stored bitmap marks exactly those
+    private void assertSeatMapMatchesBookings(Flight flight) {
+        List<Integer> seats = bookingRepository.findByFlightAndStatus(flight, BookingStatus.CONFIRMED).stream()
+                .map(Booking::getSeatNumber)
+                .sorted()
+                .toList();
+        assertEquals(seats.size(), seats.stream().distinct().count());
+        assertEquals(seats, SeatMap.of(flight).takenSeats());
+        assertEquals(flight.getCapacity() - seats.size(), flight.getAvailableSeats());
+    }
+
+    @Test
+    void testConcurrentHolds_ReleasedSeatsReturnToFlight() throws Exception {
+        // Arrange - 100 users try to hold 3 seats each on a 90-seat flight
+        int capacity = 90;
+        Flight flight = fixtures.createFlight("DUB", capacity);
+        List<User> users = fixtures.createUsers("load", 100);
+        List<SeatHold> holds = new CopyOnWriteArrayList<>();
+
+        // Act - every successful hold is released again
+        runConcurrently(users, user -> {
+            try {
+                holds.add(seatHoldService.createHold(user.getId(), flight.getId(), 3));
+            } catch (BookingException e) {
+                // sold out
+            }
+        });
+        seatInventory.flush();
+        int heldSeats = flightRepository.findById(flight.getId()).orElseThrow().getAvailableSeats();
+        runConcurrently(holds, hold -> seatHoldService.releaseHold(hold.getId(), hold.getUserId()));
+
+        // Assert
+        seatInventory.flush();
+        Flight result = flightRepository.findById(flight.getId()).orElseThrow();
+        assertEquals(capacity / 3, holds.size());
+        assertEquals(0, heldSeats);
+        assertEquals(capacity, result.getAvailableSeats());
+        assertSeatMapMatchesBookings(result);
+    }
+
+    private <T> void runConcurrently(List<T> items, Consumer<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (T item : items) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.accept(item);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.dto.BookingHistoryRequest;
+import com.example.airlinebooking.dto.BookingHistoryResponse;
+import com.example.airlinebooking.dto.BookingView;
+import com.example.airlinebooking.model.BookingStatus;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Turns Hibernate statistics on for its own tests only - left on, every session logs its metrics
+@SpringBootTest
+class BookingReadModelTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void testGetUserBookings_OneQueryWhateverTheBookingCount() throws Exception {
+        // Arrange - one booking on each of 20 flights
+        User user = fixtures.createUser("reader");
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bookingIds.add(bookingService.createBooking(user.getId(), fixtures.createFlight("DUB", 10).getId()).getId());
+        }
+        statistics.clear();
+
+        // Act
+        List<BookingView> bookings = bookingService.getUserBookings(user.getId());
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(bookingIds, bookings.stream().map(BookingView::getId).toList());
+        assertEquals("DUB", bookings.get(0).getFlight().getOrigin());
+    }
+
+    @Test
+    void testGetUserBookings_JsonCarriesNoUser() throws Exception {
+        // Arrange
+        User user = fixtures.createUser("reader");
+        bookingService.createBooking(user.getId(), fixtures.createFlight("DUB", 10).getId());
+
+        // Act
+        String json = objectMapper.writeValueAsString(bookingService.getUserBookings(user.getId()));
+
+        // Assert
+        assertFalse(json.contains("user"));
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("seatMap"));
+        assertTrue(json.contains("\"departureTime\""));
+    }
+
+    @Test
+    void testGetBookingHistory_PagesNewestFirstWithBoundedQueries() {
+        // Arrange - 25 bookings, every third one cancelled
+        User user = fixtures.createUser("reader");
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Long bookingId = bookingService.createBooking(user.getId(), fixtures.createFlight("DUB", 10).getId()).getId();
+            if (i % 3 == 0) {
+                bookingService.cancelBooking(bookingId, user.getId());
+            }
+            bookingIds.add(0, bookingId);
+        }
+
+        // Act
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            BookingHistoryRequest request = new BookingHistoryRequest();
+            request.setLimit(10);
+            request.setCursor(cursor);
+            statistics.clear();
+            BookingHistoryResponse page = bookingService.getBookingHistory(user.getId(), request);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            page.getBookings().forEach(booking -> seen.add(booking.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(3, pages);
+        assertEquals(bookingIds, seen);
+    }
+
+    @Test
+    void testGetBookingHistory_FiltersByStatus() {
+        // Arrange
+        User user = fixtures.createUser("reader");
+        bookingService.createBooking(user.getId(), fixtures.createFlight("DUB", 10).getId()).getId();
+        Long cancelled = bookingService.createBooking(user.getId(), fixtures.createFlight("DUB", 10).getId()).getId();
+        bookingService.cancelBooking(cancelled, user.getId());
+
+        BookingHistoryRequest request = new BookingHistoryRequest();
+        request.setStatus(BookingStatus.CANCELLED);
+
+        // Act
+        BookingHistoryResponse page = bookingService.getBookingHistory(user.getId(), request);
+
+        // Assert
+        assertEquals(List.of(cancelled), page.getBookings().stream().map(BookingView::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetBookingHistory_InvalidCursor() {
+        // Arrange
+        BookingHistoryRequest request = new BookingHistoryRequest();
+        request.setCursor("not-a-cursor");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            bookingService.getBookingHistory(1L, request);
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.airlinebooking.service;
 
+import com.example.airlinebooking.dto.BookingView;
 import com.example.airlinebooking.model.*;
 import com.example.airlinebooking.repository.*;
 import com.example.airlinebooking.exception.*;
@@ -9,14 +10,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +36,18 @@ class BookingServiceTest {
     @Mock
     private FlightRepository flightRepository;
 
+    @Mock
+    private SeatInventory seatInventory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BookingStatsService bookingStatsService;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -59,16 +76,17 @@ class BookingServiceTest {
         testBooking.setUser(testUser);
         testBooking.setFlight(testFlight);
         testBooking.setStatus(BookingStatus.CONFIRMED);
+        testBooking.setVersion(0L);
+        testBooking.setSeatNumber(7);
     }
 
     @Test
     void testCreateBooking_Success() {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserve(1L)).thenReturn(12);
         when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
-        when(bookingRepository.findByUserAndFlight(testUser, testFlight)).thenReturn(Optional.empty());
-        when(flightRepository.save(any(Flight.class))).thenReturn(testFlight);
-        when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         Booking result = bookingService.createBooking(1L, 1L);
@@ -78,11 +96,14 @@ class BookingServiceTest {
         assertEquals(BookingStatus.CONFIRMED, result.getStatus());
         assertEquals(testUser, result.getUser());
         assertEquals(testFlight, result.getFlight());
+        assertEquals(12, result.getSeatNumber());
         verify(userRepository).findById(1L);
+        verify(seatInventory).reserve(1L);
         verify(flightRepository).findById(1L);
-        verify(bookingRepository).findByUserAndFlight(testUser, testFlight);
-        verify(flightRepository).save(any(Flight.class));
+        verify(flightRepository, never()).save(any(Flight.class));
         verify(bookingRepository).save(any(Booking.class));
+        verify(outboxService).bookingCreated(any(Booking.class));
+        verify(bookingStatsService).bookingsCreated(1L, 1);
     }
 
     @Test
@@ -97,12 +118,15 @@ class BookingServiceTest {
 
         verify(userRepository).findById(999L);
         verify(flightRepository, never()).findById(anyLong());
+        verifyNoInteractions(outboxService);
+        verifyNoInteractions(bookingStatsService);
     }
 
     @Test
     void testCreateBooking_FlightNotFound() {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserve(999L)).thenReturn(SeatInventory.NO_SEAT);
         when(flightRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -120,6 +144,7 @@ class BookingServiceTest {
         // Arrange
         testFlight.setAvailableSeats(0);
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserve(1L)).thenReturn(SeatInventory.NO_SEAT);
         when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
 
         // Act & Assert
@@ -128,34 +153,149 @@ class BookingServiceTest {
         });
 
         verify(userRepository).findById(1L);
-        verify(flightRepository).findById(1L);
+        verify(seatInventory).reserve(1L);
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
-    void testCreateBooking_AlreadyBooked() {
+    void testCreateBooking_SelectedSeat() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserve(1L, 42)).thenReturn(true);
+        when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Booking result = bookingService.createBooking(1L, 1L, 42);
+
+        // Assert
+        assertEquals(42, result.getSeatNumber());
+        verify(seatInventory).reserve(1L, 42);
+        verify(seatInventory, never()).reserve(anyLong());
+    }
+
+    @Test
+    void testCreateBooking_SelectedSeatTaken() {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserve(1L, 42)).thenReturn(false);
         when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
-        when(bookingRepository.findByUserAndFlight(testUser, testFlight)).thenReturn(Optional.of(testBooking));
 
         // Act & Assert
-        assertThrows(BookingException.class, () -> {
-            bookingService.createBooking(1L, 1L);
+        BookingException exception = assertThrows(BookingException.class, () -> {
+            bookingService.createBooking(1L, 1L, 42);
         });
 
-        verify(userRepository).findById(1L);
-        verify(flightRepository).findById(1L);
-        verify(bookingRepository).findByUserAndFlight(testUser, testFlight);
+        assertEquals("Seat 42 is already taken", exception.getMessage());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
+    @Test
+    void testCreateBooking_SelectedSeatDoesNotExist() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserve(1L, 151)).thenReturn(false);
+        when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
+
+        // Act & Assert
+        BookingException exception = assertThrows(BookingException.class, () -> {
+            bookingService.createBooking(1L, 1L, 151);
+        });
+
+        assertEquals("Seat 151 does not exist on this flight", exception.getMessage());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void testCreateBooking_SecondSeatOnSameFlight() {
+        // Arrange - one booking per passenger, so a user can book for someone else too
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserve(1L)).thenReturn(12, 13);
+        when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Booking first = bookingService.createBooking(1L, 1L);
+        Booking second = bookingService.createBooking(1L, 1L);
+
+        // Assert
+        assertEquals(12, first.getSeatNumber());
+        assertEquals(13, second.getSeatNumber());
+        verify(bookingRepository, times(2)).save(any(Booking.class));
+    }
+
+    @Test
+    void testCreateGroupBooking_Success() {
+        // Arrange
+        Flight returnFlight = new Flight();
+        returnFlight.setId(2L);
+        returnFlight.setCapacity(150);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserveGroup(any())).thenReturn(Map.of(1L, List.of(3, 4), 2L, List.of(10, 11)));
+        when(flightRepository.findAllById(any())).thenReturn(List.of(testFlight, returnFlight));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Booking> result = bookingService.createGroupBooking(1L, Map.of(2L, 2, 1L, 2));
+
+        // Assert
+        assertEquals(4, result.size());
+        assertTrue(result.stream().allMatch(booking -> booking.getStatus() == BookingStatus.CONFIRMED));
+        assertEquals(List.of(3, 4), result.stream().filter(booking -> booking.getFlight() == testFlight).map(Booking::getSeatNumber).toList());
+        assertEquals(List.of(10, 11), result.stream().filter(booking -> booking.getFlight() == returnFlight).map(Booking::getSeatNumber).toList());
+        // Legs reach the inventory in flight id order
+        verify(seatInventory).reserveGroup(argThat(legs -> List.copyOf(legs.keySet()).equals(List.of(1L, 2L))));
+    }
+
+    @Test
+    void testCreateGroupBooking_LegSoldOut() {
+        // Arrange
+        Flight returnFlight = new Flight();
+        returnFlight.setId(2L);
+        returnFlight.setCapacity(150);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserveGroup(any())).thenReturn(Map.of());
+        when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
+        when(flightRepository.findById(2L)).thenReturn(Optional.of(returnFlight));
+        when(seatInventory.availableSeats(testFlight)).thenReturn(150);
+        when(seatInventory.availableSeats(returnFlight)).thenReturn(1);
+
+        // Act & Assert
+        BookingException exception = assertThrows(BookingException.class, () -> {
+            bookingService.createGroupBooking(1L, Map.of(1L, 2, 2L, 2));
+        });
+
+        assertEquals("Not enough seats available on flight 2", exception.getMessage());
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testCreateGroupBooking_FlightNotFound() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(seatInventory.reserveGroup(any())).thenReturn(Map.of());
+        when(flightRepository.findById(1L)).thenReturn(Optional.of(testFlight));
+        when(flightRepository.findById(999L)).thenReturn(Optional.empty());
+        when(seatInventory.availableSeats(testFlight)).thenReturn(150);
+
+        // Act & Assert
+        assertThrows(FlightNotFoundException.class, () -> {
+            bookingService.createGroupBooking(1L, Map.of(1L, 2, 999L, 1));
+        });
+
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void testCancelBooking_Success() {
         // Arrange
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
-        when(flightRepository.save(any(Flight.class))).thenReturn(testFlight);
-        when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
+        Booking cancelled = new Booking();
+        cancelled.setId(1L);
+        cancelled.setUser(testUser);
+        cancelled.setFlight(testFlight);
+        cancelled.setStatus(BookingStatus.CANCELLED);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking), Optional.of(cancelled));
+        when(bookingRepository.cancelIfUnchanged(1L, 0L)).thenReturn(1);
 
         // Act
         Booking result = bookingService.cancelBooking(1L, 1L);
@@ -163,9 +303,26 @@ class BookingServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(BookingStatus.CANCELLED, result.getStatus());
-        verify(bookingRepository).findById(1L);
-        verify(flightRepository).save(any(Flight.class));
-        verify(bookingRepository).save(any(Booking.class));
+        verify(bookingRepository, times(2)).findById(1L);
+        verify(bookingRepository).cancelIfUnchanged(1L, 0L);
+        verify(seatInventory).release(1L, 7);
+        verify(flightRepository, never()).save(any(Flight.class));
+        verify(outboxService).bookingCancelled(any(Booking.class));
+        verify(bookingStatsService).statusChanged(1L, BookingStatus.CONFIRMED, BookingStatus.CANCELLED);
+    }
+
+    @Test
+    void testCancelBooking_ConcurrentlyModified() {
+        // Arrange
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
+        when(bookingRepository.cancelIfUnchanged(1L, 0L)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> {
+            bookingService.cancelBooking(1L, 1L);
+        });
+
+        verify(seatInventory, never()).release(anyLong(), anyInt());
     }
 
     @Test
@@ -214,33 +371,41 @@ class BookingServiceTest {
     @Test
     void testGetUserBookings_Success() {
         // Arrange
-        List<Booking> expectedBookings = Arrays.asList(testBooking);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(bookingRepository.findByUser(testUser)).thenReturn(expectedBookings);
+        BookingView view = new BookingView(1L, BookingStatus.CONFIRMED, 1, 1L, testFlight.getOrigin(), testFlight.getDestination(),
+                testFlight.getDepartureTime(), testFlight.getArrivalTime());
+        when(bookingRepository.findViewsByUserId(1L)).thenReturn(List.of(view));
 
         // Act
-        List<Booking> result = bookingService.getUserBookings(1L);
+        List<BookingView> result = bookingService.getUserBookings(1L);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testBooking, result.get(0));
-        verify(userRepository).findById(1L);
-        verify(bookingRepository).findByUser(testUser);
+        assertEquals(List.of(view), result);
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void testGetUserBookings_NoBookings() {
+        // Arrange
+        when(bookingRepository.findViewsByUserId(1L)).thenReturn(List.of());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        List<BookingView> result = bookingService.getUserBookings(1L);
+
+        // Assert
+        assertTrue(result.isEmpty());
     }
 
     @Test
     void testGetUserBookings_UserNotFound() {
         // Arrange
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(bookingRepository.findViewsByUserId(999L)).thenReturn(List.of());
+        when(userRepository.existsById(999L)).thenReturn(false);
 
         // Act & Assert
         assertThrows(UserNotFoundException.class, () -> {
             bookingService.getUserBookings(999L);
         });
-
-        verify(userRepository).findById(999L);
-        verify(bookingRepository, never()).findByUser(any(User.class));
     }
 
     @Test
@@ -0,0 +1,190 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.dto.RouteStats;
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.BookingStatus;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.FlightBookingStats;
+import com.example.airlinebooking.model.SeatMap;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.repository.BookingRepository;
+import com.example.airlinebooking.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookingStatsServiceTest {
+
+    @Autowired
+    private BookingStatsService bookingStatsService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    // Unique per test so flights created by other tests never join a route
+    private String origin;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        origin = TestFixtures.airport("S");
+        user = fixtures.createUser("stats");
+    }
+
+    @Test
+    void testStats_FollowBookingChanges() {
+        // Arrange
+        Flight flight = fixtures.createFlight(origin, 4);
+        User other = fixtures.createUser("stats");
+        User third = fixtures.createUser("stats");
+        Booking first = bookingService.createBooking(user.getId(), flight.getId());
+        Booking second = bookingService.createBooking(other.getId(), flight.getId());
+        bookingService.createBooking(third.getId(), flight.getId());
+
+        // Act
+        bookingService.cancelBooking(first.getId(), user.getId());
+        bookingService.updateBookingStatus(second.getId(), other.getId(), BookingStatus.DELAYED);
+
+        // Assert - delayed passengers still fly, cancelled ones do not
+        FlightBookingStats stats = bookingStatsService.getFlight(flight.getId());
+        assertEquals(1, stats.getConfirmed());
+        assertEquals(1, stats.getDelayed());
+        assertEquals(1, stats.getCancelled());
+        assertEquals(0.5, stats.getLoadFactor(), 0.0001);
+    }
+
+    @Test
+    void testStats_MovedBookingCountsOnNewFlight() {
+        // Arrange
+        Flight from = fixtures.createFlight(origin, 10);
+        Flight to = fixtures.createFlight(origin, 10);
+        Booking booking = bookingService.createBooking(user.getId(), from.getId());
+
+        // Act
+        bookingService.updateBooking(booking.getId(), user.getId(), to.getId());
+
+        // Assert
+        assertEquals(0, bookingStatsService.getFlight(from.getId()).getConfirmed());
+        assertEquals(1, bookingStatsService.getFlight(to.getId()).getConfirmed());
+        assertEquals(0.1, bookingStatsService.getFlight(to.getId()).getLoadFactor(), 0.0001);
+    }
+
+    @Test
+    void testStats_RoutesAndFullestFlights() {
+        // Arrange
+        Flight full = fixtures.createFlight(origin, 1);
+        fixtures.createFlight(origin, 3);
+        bookingService.createBooking(user.getId(), full.getId());
+
+        // Act
+        List<RouteStats> routes = bookingStatsService.getRoutes(origin.toLowerCase(), null);
+        List<FlightBookingStats> fullest = bookingStatsService.getFullest(100);
+
+        // Assert
+        assertEquals(1, routes.size());
+        assertEquals(2, routes.get(0).getFlights());
+        assertEquals(4, routes.get(0).getCapacity());
+        assertEquals(1, routes.get(0).getConfirmed());
+        assertEquals(0.25, routes.get(0).getLoadFactor(), 0.0001);
+        for (int i = 1; i < fullest.size(); i++) {
+            assertTrue(fullest.get(i - 1).getLoadFactor() >= fullest.get(i).getLoadFactor());
+        }
+        assertEquals(1.0, fullest.get(0).getLoadFactor(), 0.0001);
+        assertThrows(IllegalArgumentException.class, () -> bookingStatsService.getFullest(0));
+    }
+
+    @Test
+    void testInsertMissing_CountsFlightsWrittenDirectly() {
+        // Arrange - straight through the repositories, as the seed and load test data are
+        Flight flight = new Flight();
+        flight.setOrigin(origin);
+        flight.setDestination("LHR");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(20));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(20).plusHours(2));
+        flight.setCapacity(2);
+        flight.setAvailableSeats(1);
+        flight.setSeatMap(SeatMap.empty(2).toBytes());
+        flight = flightRepository.save(flight);
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setFlight(flight);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setSeatNumber(1);
+        bookingRepository.save(booking);
+
+        // Act
+        bookingStatsService.insertMissing();
+
+        // Assert
+        FlightBookingStats stats = bookingStatsService.getFlight(flight.getId());
+        assertEquals(origin, stats.getOrigin());
+        assertEquals(1, stats.getConfirmed());
+        assertEquals(0.5, stats.getLoadFactor(), 0.0001);
+    }
+
+    @Test
+    void testStats_DeletedUserLeavesCountsAndSeats() {
+        // Arrange
+        Flight flight = fixtures.createFlight(origin, 4);
+        User other = fixtures.createUser("stats");
+        Booking cancelled = bookingService.createBooking(user.getId(), flight.getId());
+        bookingService.createBooking(user.getId(), flight.getId());
+        bookingService.createBooking(other.getId(), flight.getId());
+        bookingService.cancelBooking(cancelled.getId(), user.getId());
+
+        // Act
+        userService.deleteUser(user.getId());
+
+        // Assert - only the other user's booking is still counted and still holds a seat
+        FlightBookingStats stats = bookingStatsService.getFlight(flight.getId());
+        assertEquals(1, stats.getConfirmed());
+        assertEquals(0, stats.getCancelled());
+        assertEquals(0.25, stats.getLoadFactor(), 0.0001);
+        assertEquals(3, flightService.getSeatMap(flight.getId()).getAvailableSeats());
+    }
+
+    @Test
+    void testStats_BookingCountsFlightWithoutStatsRow() {
+        // Arrange - written straight through the repository, so insertMissing has not counted it
+        Flight flight = new Flight();
+        flight.setOrigin(origin);
+        flight.setDestination("LHR");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(20));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(20).plusHours(2));
+        flight.setCapacity(4);
+        flight.setAvailableSeats(4);
+        flight.setSeatMap(SeatMap.empty(4).toBytes());
+        flight = flightRepository.save(flight);
+
+        // Act
+        bookingService.createBooking(user.getId(), flight.getId());
+
+        // Assert - counted once, from the booking the row was inserted for
+        FlightBookingStats stats = bookingStatsService.getFlight(flight.getId());
+        assertEquals(1, stats.getConfirmed());
+        assertEquals(0.25, stats.getLoadFactor(), 0.0001);
+    }
+}
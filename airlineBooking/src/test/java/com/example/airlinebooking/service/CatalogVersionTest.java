@@ -0,0 +1,84 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.repository.CatalogCounterRepository;
+import com.example.airlinebooking.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two CatalogVersion instances on one database stand in for two application instances
+@SpringBootTest
+class CatalogVersionTest {
+
+    @Autowired
+    private CatalogCounterRepository counterRepository;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private CatalogVersion first;
+    private CatalogVersion second;
+
+    @BeforeEach
+    void setUp() {
+        first = new CatalogVersion(counterRepository, flightRepository, transactionTemplate);
+        second = new CatalogVersion(counterRepository, flightRepository, transactionTemplate);
+    }
+
+    @Test
+    void testEtag_SameOnEveryInstanceUntilChanged() {
+        // Act
+        String tag = first.etag();
+
+        // Assert - a restarted instance is just another new one
+        assertEquals(tag, second.etag());
+        assertEquals(tag, new CatalogVersion(counterRepository, flightRepository, transactionTemplate).etag());
+        first.refresh(() -> { });
+        assertEquals(tag, first.etag());
+    }
+
+    @Test
+    void testEtag_LocalChangeVisibleAtOnceAndSharedOnRefresh() {
+        // Arrange
+        String tag = first.etag();
+        second.etag();
+
+        // Act
+        first.increment();
+        String changed = first.etag();
+        first.refresh(() -> { });
+        second.refresh(() -> { });
+
+        // Assert
+        assertNotEquals(tag, changed);
+        assertNotEquals(tag, first.etag());
+        assertEquals(first.etag(), second.etag());
+    }
+
+    @Test
+    void testRefresh_ChangeOnAnotherInstanceDropsCache() {
+        // Arrange
+        first.etag();
+        second.etag();
+        AtomicInteger firstDropped = new AtomicInteger();
+        AtomicInteger secondDropped = new AtomicInteger();
+
+        // Act
+        second.increment();
+        second.refresh(secondDropped::incrementAndGet);
+        first.refresh(firstDropped::incrementAndGet);
+
+        // Assert - only the instance that did not make the change drops its cache
+        assertEquals(1, firstDropped.get());
+        assertEquals(0, secondDropped.get());
+    }
+}
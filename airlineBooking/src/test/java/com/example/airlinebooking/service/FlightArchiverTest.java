@@ -0,0 +1,164 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.dto.ArchivedRouteResponse;
+import com.example.airlinebooking.dto.BookingHistoryRequest;
+import com.example.airlinebooking.dto.BookingHistoryResponse;
+import com.example.airlinebooking.dto.BookingView;
+import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.model.ArchivedFlight;
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.BookingStatus;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.SeatMap;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.repository.ArchiveWatermarkRepository;
+import com.example.airlinebooking.repository.BookingRepository;
+import com.example.airlinebooking.repository.FlightRepository;
+import com.example.airlinebooking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FlightArchiverTest {
+
+    @Autowired
+    private FlightArchiver flightArchiver;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ArchiveWatermarkRepository watermarkRepository;
+
+    // Unique per test so flights created by other tests never match a route
+    private String origin;
+
+    @BeforeEach
+    void setUp() {
+        origin = "A" + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        // Each test departs flights further back than the last run may have archived through
+        watermarkRepository.deleteAll();
+    }
+
+    @Test
+    void testArchive_MovesDepartedFlightsWithTheirBookings() {
+        // Arrange
+        User user = userRepository.save(new User(null, "archive-" + origin + "@example.com", "Archive User", "hashedPassword"));
+        Flight departed = saveFlight(LocalDateTime.now().minusDays(45));
+        Flight recent = saveFlight(LocalDateTime.now().minusDays(5));
+        Booking confirmed = saveBooking(user, departed, BookingStatus.CONFIRMED, 1);
+        Booking cancelled = saveBooking(user, departed, BookingStatus.CANCELLED, 2);
+        Booking stays = saveBooking(user, recent, BookingStatus.CONFIRMED, 1);
+
+        // Act
+        flightArchiver.archive();
+
+        // Assert - the departed flight and both its bookings moved, the recent one stayed
+        assertFalse(flightRepository.existsById(departed.getId()));
+        assertFalse(bookingRepository.existsById(confirmed.getId()));
+        assertFalse(bookingRepository.existsById(cancelled.getId()));
+        assertTrue(flightRepository.existsById(recent.getId()));
+        assertTrue(bookingRepository.existsById(stays.getId()));
+
+        ArchivedFlight archived = archiveService.getFlight(departed.getId());
+        assertEquals(origin, archived.getOrigin());
+        assertEquals(180, archived.getCapacity());
+        assertNotNull(archived.getArchivedAt());
+
+        BookingHistoryResponse history = archiveService.getBookingHistory(user.getId(), new BookingHistoryRequest());
+        assertEquals(List.of(cancelled.getId(), confirmed.getId()),
+                history.getBookings().stream().map(BookingView::getId).toList());
+        assertEquals(departed.getId(), history.getBookings().get(0).getFlight().getId());
+        assertNull(history.getNextCursor());
+
+        LocalDateTime watermark = watermarkRepository.findById(FlightArchiver.WATERMARK).orElseThrow().getArchivedThrough();
+        assertFalse(watermark.isBefore(departed.getDepartureTime()));
+    }
+
+    @Test
+    void testArchive_RouteIsListedNewestFirst() {
+        // Arrange
+        Flight older = saveFlight(LocalDateTime.now().minusDays(60));
+        Flight newer = saveFlight(LocalDateTime.now().minusDays(40));
+
+        // Act
+        flightArchiver.archive();
+
+        // Assert
+        ArchivedRouteResponse route = archiveService.getRoute(origin.toLowerCase(), "lhr", null, 10);
+        assertEquals(List.of(newer.getId(), older.getId()), route.getFlights().stream().map(ArchivedFlight::getId).toList());
+        assertNull(route.getNextCursor());
+    }
+
+    @Test
+    void testArchive_RoutePagesKeepFlightsSharingDepartureTime() {
+        // Arrange - three departures at the same minute, split across pages of two
+        LocalDateTime departure = LocalDateTime.now().minusDays(50);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(saveFlight(departure).getId());
+        }
+        flightArchiver.archive();
+
+        // Act
+        ArchivedRouteResponse first = archiveService.getRoute(origin, "LHR", null, 2);
+        ArchivedRouteResponse second = archiveService.getRoute(origin, "LHR", first.getNextCursor(), 2);
+
+        // Assert
+        List<Long> paged = new ArrayList<>();
+        first.getFlights().forEach(flight -> paged.add(flight.getId()));
+        second.getFlights().forEach(flight -> paged.add(flight.getId()));
+        assertEquals(List.of(ids.get(2), ids.get(1), ids.get(0)), paged);
+        assertNotNull(first.getNextCursor());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testGetFlight_UnknownIdNotFound() {
+        // Act & Assert
+        assertThrows(FlightNotFoundException.class, () -> archiveService.getFlight(-1L));
+    }
+
+    // Straight through the repository - the service does not schedule flights in the past.
+    // Whole seconds, so the stored departure compares equal to the one asserted against.
+    private Flight saveFlight(LocalDateTime departure) {
+        departure = departure.truncatedTo(ChronoUnit.SECONDS);
+        Flight flight = new Flight();
+        flight.setOrigin(origin);
+        flight.setDestination("LHR");
+        flight.setDepartureTime(departure);
+        flight.setArrivalTime(departure.plusHours(2));
+        flight.setCapacity(180);
+        flight.setAvailableSeats(180);
+        flight.setSeatMap(SeatMap.empty(180).toBytes());
+        return flightRepository.save(flight);
+    }
+
+    private Booking saveBooking(User user, Flight flight, BookingStatus status, int seatNumber) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setFlight(flight);
+        booking.setStatus(status);
+        booking.setSeatNumber(seatNumber);
+        return bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FlightCacheTest {
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testGetFlightById_SecondReadIsACacheHit() {
+        // Arrange
+        Flight flight = fixtures.createFlight("ORK", "AMS", LocalDateTime.now().plusDays(3), 100);
+        flightService.getFlightById(flight.getId());
+        double hits = cacheHits();
+
+        // Act
+        FlightSummary cached = flightService.getFlightById(flight.getId());
+
+        // Assert
+        assertEquals(flight.getId(), cached.getId());
+        assertEquals(hits + 1, cacheHits());
+    }
+
+    @Test
+    void testUpdateFlight_EvictsCachedEntry() {
+        // Arrange
+        Flight flight = fixtures.createFlight("ORK", "AMS", LocalDateTime.now().plusDays(3), 100);
+        flightService.getFlightById(flight.getId());
+        Flight changes = TestFixtures.newFlight("ORK", "AMS", LocalDateTime.now().plusDays(3), 120);
+        changes.setDestination("CDG");
+
+        // Act
+        flightService.updateFlight(flight.getId(), changes);
+
+        // Assert
+        FlightSummary result = flightService.getFlightById(flight.getId());
+        assertEquals("CDG", result.getDestination());
+        assertEquals(120, result.getCapacity());
+        assertEquals(120, result.getAvailableSeats());
+    }
+
+    @Test
+    void testBookingAndCancellation_ReflectedInCachedReads() {
+        // Arrange
+        Flight flight = fixtures.createFlight("ORK", "AMS", LocalDateTime.now().plusDays(3), 1);
+        User user = fixtures.createUser("cache");
+        Booking booking = bookingService.createBooking(user.getId(), flight.getId());
+        seatInventory.flush();
+        assertEquals(0, flightService.getFlightById(flight.getId()).getAvailableSeats());
+        assertTrue(flightService.getAvailableFlights().stream().noneMatch(f -> f.getId().equals(flight.getId())));
+
+        // Act - the bookable listing was cached while the flight was sold out
+        bookingService.cancelBooking(booking.getId(), user.getId());
+        seatInventory.flush();
+
+        // Assert
+        assertEquals(1, flightService.getFlightById(flight.getId()).getAvailableSeats());
+        assertTrue(flightService.getAvailableFlights().stream().anyMatch(f -> f.getId().equals(flight.getId())));
+    }
+
+    @Test
+    void testCreateFlight_AppearsInCachedCatalog() {
+        // Arrange
+        flightService.getAllFlights();
+
+        // Act
+        Flight flight = fixtures.createFlight("ORK", "AMS", LocalDateTime.now().plusDays(3), 50);
+
+        // Assert
+        assertTrue(flightService.getAllFlights().stream().anyMatch(f -> f.getId().equals(flight.getId())));
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", "flights").tag("result", "hit").functionCounter().count();
+    }
+}
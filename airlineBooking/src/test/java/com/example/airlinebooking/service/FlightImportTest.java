@@ -0,0 +1,141 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.dto.FlightImportResult;
+import com.example.airlinebooking.dto.FlightSearchRequest;
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FlightImportTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(40);
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    // Unique per test so flights created by other tests never match
+    private String origin;
+
+    @BeforeEach
+    void setUp() {
+        origin = TestFixtures.airport("I");
+    }
+
+    @Test
+    void testImportFlights_CsvSkipsInvalidRows() throws Exception {
+        // Arrange - columns in a different order than the entity, one quoted field
+        String csv = String.join("\n",
+                "capacity,origin,destination,departureTime,arrivalTime",
+                "100," + origin + ",LHR," + DAY.atTime(8, 0) + "," + DAY.atTime(10, 0),
+                "120,\"" + origin + "\",CDG," + DAY.atTime(9, 0) + "," + DAY.atTime(11, 0),
+                "lots," + origin + ",AMS," + DAY.atTime(9, 0) + "," + DAY.atTime(11, 0),
+                "",
+                "80," + origin + ",MAD," + DAY.atTime(12, 0) + "," + DAY.atTime(11, 0),
+                "90," + origin + ",FRA," + DAY.atTime(13, 0),
+                "0," + origin + ",BCN," + DAY.atTime(13, 0) + "," + DAY.atTime(15, 0),
+                "150," + origin + ",JFK," + DAY.atTime(14, 0) + "," + DAY.atTime(22, 0));
+
+        // Act
+        FlightImportResult result = flightService.importFlights(stream(csv), CSV, false);
+
+        // Assert - blank lines still count, so error lines match the file
+        assertEquals(3, result.getInserted());
+        assertEquals(0, result.getUpdated());
+        assertEquals(4, result.getRejected());
+        assertEquals(List.of(4L, 6L, 7L, 8L), result.getErrors().stream().map(FlightImportResult.RowError::getLine).toList());
+        assertEquals("Departure time must be before arrival time", result.getErrors().get(1).getMessage());
+        assertEquals(List.of("LHR", "CDG", "JFK"), importedDestinations());
+    }
+
+    @Test
+    void testImportFlights_NdjsonUpsertUpdatesMatchingSchedule() throws Exception {
+        // Arrange
+        Flight existing = fixtures.createFlight(origin, "LHR", DAY.atTime(8, 0), 100);
+        String ndjson = String.join("\n",
+                json("LHR", 8, 150),
+                json("CDG", 9, 50),
+                "{not json",
+                json("CDG", 9, 60));
+
+        // Act
+        FlightImportResult result = flightService.importFlights(stream(ndjson), MediaType.APPLICATION_NDJSON, true);
+
+        // Assert - the repeated CDG row replaces the earlier one rather than adding a duplicate
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getRejected());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        assertEquals(150, flightService.getSeatMap(existing.getId()).getCapacity());
+        assertEquals(List.of("LHR", "CDG"), importedDestinations());
+        assertEquals(60, imported().get(1).getCapacity());
+    }
+
+    @Test
+    void testImportFlights_UpsertCannotDropBookedSeats() throws Exception {
+        // Arrange
+        Flight existing = fixtures.createFlight(origin, "LHR", DAY.atTime(8, 0), 2);
+        for (int i = 0; i < 2; i++) {
+            User user = fixtures.createUser("import");
+            bookingService.createBooking(user.getId(), existing.getId());
+        }
+
+        // Act
+        FlightImportResult result = flightService.importFlights(
+                stream(json("LHR", 8, 1) + "\n" + json("CDG", 9, 50)), MediaType.APPLICATION_NDJSON, true);
+
+        // Assert - the rejected row leaves the flight untouched and the rest of the chunk commits
+        assertEquals(1, result.getInserted());
+        assertEquals(0, result.getUpdated());
+        assertEquals("Cannot reduce capacity below number of booked seats", result.getErrors().get(0).getMessage());
+        assertEquals(2, flightService.getSeatMap(existing.getId()).getCapacity());
+    }
+
+    @Test
+    void testImportFlights_CsvHeaderMissingColumn() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            flightService.importFlights(stream("origin,destination,departureTime\n"), CSV, false);
+        });
+    }
+
+    private String json(String destination, int hour, int capacity) {
+        return "{\"origin\":\"" + origin + "\",\"destination\":\"" + destination + "\",\"departureTime\":\""
+                + DAY.atTime(hour, 0) + "\",\"arrivalTime\":\"" + DAY.atTime(hour + 2, 0) + "\",\"capacity\":" + capacity + "}";
+    }
+
+    private List<FlightSummary> imported() {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin(origin);
+        return flightService.searchFlights(request).getFlights();
+    }
+
+    private List<String> importedDestinations() {
+        return imported().stream().map(FlightSummary::getDestination).toList();
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.dto.FlightSearchRequest;
+import com.example.airlinebooking.dto.FlightSearchResponse;
+import com.example.airlinebooking.dto.FlightSummary;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.repository.FlightRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FlightSearchTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(30);
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Unique per test so flights created by other tests never match
+    private String origin;
+
+    @BeforeEach
+    void setUp() {
+        origin = TestFixtures.airport("T");
+    }
+
+    @Test
+    void testSearchFlights_PagesThroughAllMatchesInDepartureOrder() {
+        // Arrange - 25 flights, three of them sharing a departure time
+        List<Flight> created = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            created.add(fixtures.createFlight(origin, "LHR", DAY.atTime(6, 0).plusMinutes(i < 3 ? 0 : i * 10), 100));
+        }
+
+        // Act
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            FlightSearchRequest request = new FlightSearchRequest();
+            request.setOrigin(origin);
+            request.setLimit(10);
+            request.setCursor(cursor);
+            FlightSearchResponse page = flightService.searchFlights(request);
+            page.getFlights().forEach(flight -> seen.add(flight.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(3, pages);
+        assertEquals(created.stream().map(Flight::getId).toList(), seen);
+    }
+
+    @Test
+    void testSearchFlights_FiltersByRouteDateAndSeats() {
+        // Arrange
+        Flight match = fixtures.createFlight(origin, "LHR", DAY.atTime(9, 0), 100);
+        fixtures.createFlight(origin, "CDG", DAY.atTime(9, 0), 100);
+        fixtures.createFlight(origin, "LHR", DAY.plusDays(2).atTime(9, 0), 100);
+        fixtures.createFlight(origin, "LHR", DAY.atTime(12, 0), 1);
+
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin(origin);
+        request.setDestination("LHR");
+        request.setDepartureFrom(DAY);
+        request.setDepartureTo(DAY);
+        request.setMinSeats(2);
+
+        // Act
+        FlightSearchResponse page = flightService.searchFlights(request);
+
+        // Assert
+        assertEquals(List.of(match.getId()), page.getFlights().stream().map(FlightSummary::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testSearchFlights_SoldOutRowsDoNotShortenPage() {
+        // Arrange - the first flight sells out in the inventory before its row is flushed
+        Flight soldOut = fixtures.createFlight(origin, "LHR", DAY.atTime(8, 0), 1);
+        Flight second = fixtures.createFlight(origin, "LHR", DAY.atTime(9, 0), 100);
+        Flight third = fixtures.createFlight(origin, "LHR", DAY.atTime(10, 0), 100);
+        Flight fourth = fixtures.createFlight(origin, "LHR", DAY.atTime(11, 0), 100);
+        bookingService.createBooking(fixtures.createUser("search").getId(), soldOut.getId());
+
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin(origin);
+        request.setMinSeats(1);
+        request.setLimit(2);
+
+        // Act
+        FlightSearchResponse first = flightService.searchFlights(request);
+        request.setCursor(first.getNextCursor());
+        FlightSearchResponse next = flightService.searchFlights(request);
+
+        // Assert
+        assertEquals(List.of(second.getId(), third.getId()), first.getFlights().stream().map(FlightSummary::getId).toList());
+        assertEquals(List.of(fourth.getId()), next.getFlights().stream().map(FlightSummary::getId).toList());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void testGetAvailableFlights_OnlyUpcomingFlightsWithSeats() {
+        // Arrange
+        Flight upcoming = fixtures.createFlight(origin, "LHR", DAY.atTime(9, 0), 100);
+        Flight soldOut = fixtures.createFlight(origin, "LHR", DAY.atTime(10, 0), 1);
+        fixtures.createFlight(origin, "LHR", LocalDateTime.now().minusDays(1), 100);
+        bookingService.createBooking(fixtures.createUser("search").getId(), soldOut.getId());
+
+        // Act
+        List<Long> available = flightService.getAvailableFlights().stream()
+                .filter(flight -> flight.getOrigin().equals(origin))
+                .map(FlightSummary::getId)
+                .toList();
+
+        // Assert - the sold-out flight is dropped even before the inventory flushes
+        assertEquals(List.of(upcoming.getId()), available);
+    }
+
+    @Test
+    void testSearchFlights_InvalidCursor() {
+        // Arrange
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setCursor("not-a-cursor");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            flightService.searchFlights(request);
+        });
+    }
+
+    @Test
+    void testExportFlights_OneJsonLinePerFlightWithLiveSeats() throws Exception {
+        // Arrange
+        Flight first = fixtures.createFlight(origin, "LHR", DAY.atTime(9, 0), 100);
+        Flight second = fixtures.createFlight(origin, "CDG", DAY.atTime(10, 0), 2);
+        bookingService.createBooking(fixtures.createUser("search").getId(), second.getId());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        flightService.exportFlights(out);
+
+        // Assert - every line stands alone, and the seat map never leaves the service
+        List<JsonNode> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            exported.add(objectMapper.readTree(line));
+        }
+        List<JsonNode> ours = exported.stream()
+                .filter(node -> node.get("origin").asText().equals(origin))
+                .toList();
+        assertEquals(flightRepository.count(), exported.size());
+        assertEquals(List.of(first.getId(), second.getId()), ours.stream().map(node -> node.get("id").asLong()).toList());
+        assertEquals(1, ours.get(1).get("availableSeats").asInt());
+        assertFalse(ours.get(0).has("seatMap"));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.exception.BookingException;
+import com.example.airlinebooking.exception.IdempotencyInProgressException;
+import com.example.airlinebooking.exception.IdempotencyKeyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTest {
+
+    private static final long TTL_MILLIS = 100;
+    private static final long WAIT_MILLIS = 1000;
+
+    private IdempotencyService idempotencyService;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(new SimpleMeterRegistry(), TTL_MILLIS, 3, WAIT_MILLIS);
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void testExecute_DuplicateReturnsStoredResult() {
+        // Act
+        String first = idempotencyService.execute("key-1", 1L, "create:1", () -> "booking-" + calls.incrementAndGet());
+        String second = idempotencyService.execute("key-1", 1L, "create:1", () -> "booking-" + calls.incrementAndGet());
+
+        // Assert
+        assertEquals("booking-1", first);
+        assertEquals("booking-1", second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testExecute_NoKeyAlwaysRuns() {
+        // Act
+        idempotencyService.execute(null, 1L, "create:1", calls::incrementAndGet);
+        idempotencyService.execute(null, 1L, "create:1", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(2, calls.get());
+        assertEquals(0, idempotencyService.size());
+    }
+
+    @Test
+    void testExecute_KeysAreScopedToUser() {
+        // Act
+        idempotencyService.execute("key-1", 1L, "create:1", calls::incrementAndGet);
+        idempotencyService.execute("key-1", 2L, "create:1", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequest() {
+        // Arrange
+        idempotencyService.execute("key-1", 1L, "create:1", calls::incrementAndGet);
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyException.class, () -> {
+            idempotencyService.execute("key-1", 1L, "cancel:5", calls::incrementAndGet);
+        });
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testExecute_InvalidKey() {
+        // Act & Assert
+        assertThrows(IdempotencyKeyException.class, () -> {
+            idempotencyService.execute(" ", 1L, "create:1", calls::incrementAndGet);
+        });
+        assertThrows(IdempotencyKeyException.class, () -> {
+            idempotencyService.execute("k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1), 1L, "create:1", calls::incrementAndGet);
+        });
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void testExecute_FailureIsNotStored() {
+        // Arrange
+        assertThrows(BookingException.class, () -> {
+            idempotencyService.execute("key-1", 1L, "create:1", () -> {
+                calls.incrementAndGet();
+                throw new BookingException("No available seats on this flight");
+            });
+        });
+
+        // Act
+        int result = idempotencyService.execute("key-1", 1L, "create:1", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(2, result);
+    }
+
+    @Test
+    void testExecute_EntriesExpireAfterTtl() throws Exception {
+        // Arrange
+        idempotencyService.execute("key-1", 1L, "create:1", calls::incrementAndGet);
+
+        // Act
+        Thread.sleep(TTL_MILLIS * 2);
+        idempotencyService.execute("key-1", 1L, "create:1", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testExecute_OldestEntryEvictedWhenFull() {
+        // Arrange - the store holds 3 keys
+        for (int i = 1; i <= 4; i++) {
+            idempotencyService.execute("key-" + i, 1L, "create:1", calls::incrementAndGet);
+        }
+
+        // Act
+        idempotencyService.execute("key-4", 1L, "create:1", calls::incrementAndGet);
+        idempotencyService.execute("key-1", 1L, "create:1", calls::incrementAndGet);
+
+        // Assert
+        assertEquals(5, calls.get());
+        assertEquals(3, idempotencyService.size());
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicatesRunOnce() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<?>[] futures = new Future<?>[8];
+
+        // Act
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute("key-1", 1L, "create:1", () -> {
+                    calls.incrementAndGet();
+                    sleep(20);
+                    return "booking";
+                });
+            });
+        }
+        start.countDown();
+
+        // Assert
+        for (Future<?> future : futures) {
+            assertEquals("booking", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void testExecute_DuplicateGivesUpOnSlowOriginal() throws Exception {
+        // Arrange - the original runs until the test lets it finish
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<String> original = executor.submit(() -> idempotencyService.execute("key-1", 1L, "create:1", () -> {
+            started.countDown();
+            await(finish);
+            return "booking";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertThrows(IdempotencyInProgressException.class, () -> {
+            idempotencyService.execute("key-1", 1L, "create:1", () -> "duplicate");
+        });
+        finish.countDown();
+        assertEquals("booking", original.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
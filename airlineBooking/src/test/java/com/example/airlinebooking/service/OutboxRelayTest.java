@@ -0,0 +1,139 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.exception.BookingException;
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.Flight;
+import com.example.airlinebooking.model.OutboxEvent;
+import com.example.airlinebooking.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OutboxRelayTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        sink.setFailing(false);
+    }
+
+    @Test
+    void testRelay_DeliversChangesInOrder() {
+        // Arrange
+        Flight flight = fixtures.createFlight("OBX", 10);
+        User user = fixtures.createUser("outbox");
+        Booking booking = bookingService.createBooking(user.getId(), flight.getId());
+        bookingService.cancelBooking(booking.getId(), user.getId());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        assertEquals(List.of(OutboxEvent.Type.FLIGHT_CREATED), types("flight", flight.getId()));
+        assertEquals(List.of(OutboxEvent.Type.BOOKING_CREATED, OutboxEvent.Type.BOOKING_CANCELLED),
+                types("booking", booking.getId()));
+        assertTrue(sink.events().stream()
+                .filter(event -> event.getAggregateType().equals("booking") && event.getAggregateId().equals(booking.getId()))
+                .allMatch(event -> event.getPayload().contains("\"flightId\":" + flight.getId())));
+    }
+
+    @Test
+    void testRelay_DeliversBookingsOfDeletedUser() {
+        // Arrange
+        Flight flight = fixtures.createFlight("OBX", 10);
+        User user = fixtures.createUser("outbox");
+        Booking booking = bookingService.createBooking(user.getId(), flight.getId());
+        userService.deleteUser(user.getId());
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert
+        assertEquals(List.of(OutboxEvent.Type.BOOKING_CREATED, OutboxEvent.Type.BOOKING_DELETED),
+                types("booking", booking.getId()));
+    }
+
+    @Test
+    void testRelay_PositionsHaveNoGaps() {
+        // Arrange
+        fixtures.createFlight("OBX", 10);
+        fixtures.createFlight("OBX", 20);
+
+        // Act
+        outboxRelay.relay();
+
+        // Assert - every event the subscriber ever saw, one position after another
+        List<Long> positions = sink.events().stream().map(OutboxEvent::getPosition).toList();
+        for (int i = 1; i < positions.size(); i++) {
+            assertEquals(positions.get(i - 1) + 1, positions.get(i));
+        }
+    }
+
+    @Test
+    void testRelay_RolledBackChangeLeavesNoEvent() {
+        // Arrange
+        Flight flight = fixtures.createFlight("OBX", 1);
+        bookingService.createBooking(fixtures.createUser("outbox").getId(), flight.getId());
+        User late = fixtures.createUser("outbox");
+
+        // Act
+        assertThrows(BookingException.class, () -> bookingService.createBooking(late.getId(), flight.getId()));
+        outboxRelay.relay();
+
+        // Assert
+        assertTrue(sink.events().stream()
+                .filter(event -> event.getType() == OutboxEvent.Type.BOOKING_CREATED)
+                .noneMatch(event -> event.getPayload().contains("\"userId\":" + late.getId() + ",")));
+    }
+
+    @Test
+    void testRelay_RetriesUntilSinkAccepts() {
+        // Arrange
+        outboxRelay.relay();
+        sink.setFailing(true);
+        Flight flight = fixtures.createFlight("OBX", 10);
+
+        // Act
+        outboxRelay.relay();
+        double lag = meterRegistry.get("outbox.lag").tag("subscriber", "memory").gauge().value();
+        sink.setFailing(false);
+        outboxRelay.relay();
+
+        // Assert
+        assertEquals(1.0, lag);
+        assertEquals(List.of(OutboxEvent.Type.FLIGHT_CREATED), types("flight", flight.getId()));
+        assertEquals(0.0, meterRegistry.get("outbox.lag").tag("subscriber", "memory").gauge().value());
+    }
+
+    private List<OutboxEvent.Type> types(String aggregateType, Long aggregateId) {
+        return sink.events().stream()
+                .filter(event -> event.getAggregateType().equals(aggregateType) && event.getAggregateId().equals(aggregateId))
+                .map(OutboxEvent::getType)
+                .toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.exception.HashingCapacityException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void testEncodeAndMatches() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 1, 4);
+
+        // Act
+        String hash = passwordHasher.encode("password123");
+
+        // Assert
+        assertTrue(passwordHasher.matches("password123", hash));
+        assertFalse(passwordHasher.matches("wrongPassword", hash));
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void testNeedsRehash_OnlyForLowerCost() {
+        // Arrange
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(6), new SimpleMeterRegistry(), 1, 4);
+
+        // Act & Assert
+        assertTrue(passwordHasher.needsRehash(new BCryptPasswordEncoder(4).encode("password123")));
+        assertFalse(passwordHasher.needsRehash(new BCryptPasswordEncoder(6).encode("password123")));
+    }
+
+    @Test
+    void testEncode_RejectedAtOnceWhenSaturated() throws Exception {
+        // Arrange - one thread busy, one request queued behind it
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        passwordHasher = new PasswordHasher(blockingEncoder(started, release), meterRegistry, 1, 1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHasher.encode("second"));
+        while (meterRegistry.get("auth.password.hash.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThrows(HashingCapacityException.class, () -> passwordHasher.encode("third"));
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("auth.password.hash.rejected").counter().count());
+    }
+
+    private PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals(encode(rawPassword));
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.model.AuthenticatedUser;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(userRepository, new SimpleMeterRegistry(), 60000, 100);
+        testUser = new User(1L, "test@example.com", "Test User", "hashedPassword");
+    }
+
+    @Test
+    void testResolve_SecondRequestIsServedFromCache() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // Act
+        AuthenticatedUser first = principalCache.resolve(1L, "test@example.com");
+        AuthenticatedUser second = principalCache.resolve(1L, "test@example.com");
+
+        // Assert
+        assertEquals(1L, first.getId());
+        assertSame(first, second);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testResolve_EmailNoLongerMatchesToken() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        assertNull(principalCache.resolve(1L, "old@example.com"));
+    }
+
+    @Test
+    void testResolve_UserDeleted() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert - a miss is not cached
+        assertNull(principalCache.resolve(1L, "test@example.com"));
+        assertNull(principalCache.resolve(1L, "test@example.com"));
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testOnUserChanged_ReloadsOnNextRequest() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        principalCache.resolve(1L, "test@example.com");
+        testUser.setEmail("new@example.com");
+
+        // Act
+        principalCache.onUserChanged(new UserChangedEvent(1L));
+
+        // Assert
+        assertNull(principalCache.resolve(1L, "test@example.com"));
+        assertNotNull(principalCache.resolve(1L, "new@example.com"));
+    }
+
+    @Test
+    void testResolve_TokenWithoutUserIdFallsBackToEmail() {
+        // Arrange
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+
+        // Act
+        AuthenticatedUser principal = principalCache.resolve(null, "test@example.com");
+
+        // Assert
+        assertEquals(1L, principal.getId());
+        verify(userRepository, never()).findById(anyLong());
+    }
+}
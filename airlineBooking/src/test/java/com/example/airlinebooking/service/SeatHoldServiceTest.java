@@ -0,0 +1,307 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.exception.BookingException;
+import com.example.airlinebooking.exception.FlightNotFoundException;
+import com.example.airlinebooking.exception.HeldSeatsLostException;
+import com.example.airlinebooking.exception.HoldNotFoundException;
+import com.example.airlinebooking.exception.UnauthorizedAccessException;
+import com.example.airlinebooking.model.Booking;
+import com.example.airlinebooking.model.SeatHold;
+import com.example.airlinebooking.model.User;
+import com.example.airlinebooking.repository.FlightRepository;
+import com.example.airlinebooking.repository.SeatHoldRepository;
+import com.example.airlinebooking.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldServiceTest {
+
+    private static final long TTL_MILLIS = 200;
+
+    @Mock
+    private SeatInventory seatInventory;
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private SeatHoldRepository seatHoldRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxService outboxService;
+
+    // Stands in for the seat_holds table
+    private final Map<String, SeatHold> rows = new ConcurrentHashMap<>();
+
+    private SeatHoldService seatHoldService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(userRepository.findForUpdate(anyLong()))
+                .thenAnswer(invocation -> Optional.of(new User(invocation.getArgument(0), "user@example.com", "Test User", "hashedPassword")));
+        lenient().when(seatHoldRepository.save(any(SeatHold.class))).thenAnswer(invocation -> {
+            SeatHold hold = invocation.getArgument(0);
+            rows.put(hold.getId(), hold);
+            return hold;
+        });
+        lenient().when(seatHoldRepository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+        lenient().when(seatHoldRepository.findForUpdate(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+        lenient().doAnswer(invocation -> rows.remove(invocation.<SeatHold>getArgument(0).getId()))
+                .when(seatHoldRepository).delete(any(SeatHold.class));
+        lenient().when(seatHoldRepository.countActive(anyLong(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> rows.values().stream()
+                        .filter(hold -> hold.getUserId().equals(invocation.getArgument(0)))
+                        .filter(hold -> !hold.isExpired(invocation.getArgument(1)))
+                        .count());
+
+        seatHoldService = new SeatHoldService(seatInventory, bookingService, seatHoldRepository, userRepository,
+                flightRepository, new SimpleMeterRegistry(), eventPublisher, outboxService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), TTL_MILLIS, 9, 3, 10, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        seatHoldService.shutdown();
+    }
+
+    @Test
+    void testCreateHold_Success() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 3)).thenReturn(List.of(4, 5, 6));
+
+        // Act
+        SeatHold hold = seatHoldService.createHold(1L, 1L, 3);
+
+        // Assert
+        assertNotNull(hold.getId());
+        assertEquals(List.of(4, 5, 6), hold.getSeatNumbers());
+        assertEquals(hold, seatHoldService.getHold(hold.getId(), 1L));
+        assertTrue(rows.containsKey(hold.getId()));
+    }
+
+    @Test
+    void testCreateHold_NotEnoughSeats() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 3)).thenReturn(List.of());
+        when(flightRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(BookingException.class, () -> {
+            seatHoldService.createHold(1L, 1L, 3);
+        });
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testCreateHold_FlightNotFound() {
+        // Arrange
+        when(seatInventory.reserveSeats(999L, 1)).thenReturn(List.of());
+        when(flightRepository.existsById(999L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(FlightNotFoundException.class, () -> {
+            seatHoldService.createHold(1L, 999L, 1);
+        });
+    }
+
+    @Test
+    void testCreateHold_TooManySeats() {
+        // Act & Assert
+        assertThrows(BookingException.class, () -> {
+            seatHoldService.createHold(1L, 1L, 10);
+        });
+
+        verify(seatInventory, never()).reserveSeats(anyLong(), anyInt());
+    }
+
+    @Test
+    void testCreateHold_TooManyOpenHolds() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 1)).thenReturn(List.of(1), List.of(2), List.of(3));
+        for (int i = 0; i < 3; i++) {
+            seatHoldService.createHold(1L, 1L, 1);
+        }
+
+        // Act & Assert
+        assertThrows(BookingException.class, () -> {
+            seatHoldService.createHold(1L, 1L, 1);
+        });
+
+        verify(seatInventory, times(3)).reserveSeats(1L, 1);
+    }
+
+    @Test
+    void testConfirmHold_CreatesBookingsAndStopsExpiry() throws Exception {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 2)).thenReturn(List.of(1, 2));
+        List<Booking> bookings = List.of(new Booking(), new Booking());
+        when(bookingService.confirmHeldSeats(1L, 1L, List.of(1, 2))).thenReturn(bookings);
+        SeatHold hold = seatHoldService.createHold(1L, 1L, 2);
+
+        // Act
+        List<Booking> result = seatHoldService.confirmHold(hold.getId(), 1L);
+        Thread.sleep(TTL_MILLIS * 3);
+
+        // Assert
+        assertEquals(bookings, result);
+        verify(seatInventory, never()).releaseSeats(anyLong(), anyList());
+        assertThrows(HoldNotFoundException.class, () -> seatHoldService.getHold(hold.getId(), 1L));
+    }
+
+    @Test
+    void testConfirmHold_FailureKeepsHold() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 2)).thenReturn(List.of(1, 2));
+        when(bookingService.confirmHeldSeats(1L, 1L, List.of(1, 2))).thenThrow(new BookingException("failed"));
+        SeatHold hold = seatHoldService.createHold(1L, 1L, 2);
+
+        // Act & Assert
+        assertThrows(BookingException.class, () -> {
+            seatHoldService.confirmHold(hold.getId(), 1L);
+        });
+
+        verify(seatInventory, never()).releaseSeats(anyLong(), anyList());
+        assertEquals(hold, seatHoldService.getHold(hold.getId(), 1L));
+    }
+
+    @Test
+    void testConfirmHold_LostSeatsDropHoldWithoutRelease() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 2)).thenReturn(List.of(1, 2));
+        when(bookingService.confirmHeldSeats(1L, 1L, List.of(1, 2))).thenThrow(new HeldSeatsLostException("lost"));
+        SeatHold hold = seatHoldService.createHold(1L, 1L, 2);
+
+        // Act & Assert
+        assertThrows(HeldSeatsLostException.class, () -> {
+            seatHoldService.confirmHold(hold.getId(), 1L);
+        });
+
+        verify(seatInventory, never()).releaseSeats(anyLong(), anyList());
+        assertFalse(rows.containsKey(hold.getId()));
+    }
+
+    @Test
+    void testConfirmHold_UnauthorizedAccess() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 1)).thenReturn(List.of(1));
+        SeatHold hold = seatHoldService.createHold(1L, 1L, 1);
+
+        // Act & Assert
+        assertThrows(UnauthorizedAccessException.class, () -> {
+            seatHoldService.confirmHold(hold.getId(), 999L); // Different user ID
+        });
+
+        verify(bookingService, never()).confirmHeldSeats(anyLong(), anyLong(), anyList());
+    }
+
+    @Test
+    void testConfirmHold_CreatedOnAnotherInstance() {
+        // Arrange - the row was written by an instance whose wheel this one never saw
+        SeatHold hold = new SeatHold("other-instance", 1L, 1L, List.of(3, 4), LocalDateTime.now().plusMinutes(5));
+        rows.put(hold.getId(), hold);
+        List<Booking> bookings = List.of(new Booking(), new Booking());
+        when(bookingService.confirmHeldSeats(1L, 1L, List.of(3, 4))).thenReturn(bookings);
+
+        // Act
+        List<Booking> result = seatHoldService.confirmHold(hold.getId(), 1L);
+
+        // Assert
+        assertEquals(bookings, result);
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testReleaseHold_ReturnsSeats() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 2)).thenReturn(List.of(1, 2));
+        SeatHold hold = seatHoldService.createHold(1L, 1L, 2);
+
+        // Act
+        seatHoldService.releaseHold(hold.getId(), 1L);
+
+        // Assert
+        verify(seatInventory).releaseSeats(1L, List.of(1, 2));
+        assertThrows(HoldNotFoundException.class, () -> seatHoldService.releaseHold(hold.getId(), 1L));
+    }
+
+    @Test
+    void testHold_ExpiresAndReleasesSeats() {
+        // Arrange
+        when(seatInventory.reserveSeats(1L, 2)).thenReturn(List.of(7, 8));
+        SeatHold hold = seatHoldService.createHold(1L, 1L, 2);
+
+        // Act & Assert - the wheel releases the seats once the TTL has passed
+        verify(seatInventory, timeout(TTL_MILLIS * 10)).releaseSeats(1L, List.of(7, 8));
+        assertThrows(HoldNotFoundException.class, () -> {
+            seatHoldService.confirmHold(hold.getId(), 1L);
+        });
+        verify(bookingService, never()).confirmHeldSeats(anyLong(), anyLong(), anyList());
+    }
+
+    @Test
+    void testSweep_ReleasesExpiredHoldsLeftBehind() {
+        // Arrange - expired on an instance that stopped before its wheel fired
+        SeatHold hold = new SeatHold("left-behind", 1L, 2L, List.of(5), LocalDateTime.now().minusMinutes(1));
+        rows.put(hold.getId(), hold);
+        when(seatHoldRepository.findExpiredIds(any(LocalDateTime.class), any())).thenReturn(List.of(hold.getId()));
+
+        // Act
+        seatHoldService.sweep();
+
+        // Assert
+        verify(seatInventory).releaseSeats(2L, List.of(5));
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testHold_SlowReleaseDoesNotDelayOtherExpiries() {
+        // Arrange - releasing flight 1 waits on its row lock until the test ends
+        CountDownLatch rowLock = new CountDownLatch(1);
+        when(seatInventory.reserveSeats(1L, 1)).thenReturn(List.of(1));
+        when(seatInventory.reserveSeats(2L, 1)).thenReturn(List.of(1));
+        doAnswer(invocation -> {
+            rowLock.await();
+            return null;
+        }).when(seatInventory).releaseSeats(1L, List.of(1));
+        seatHoldService.createHold(1L, 1L, 1);
+        seatHoldService.createHold(1L, 2L, 1);
+
+        // Act & Assert
+        try {
+            verify(seatInventory, timeout(TTL_MILLIS * 10)).releaseSeats(2L, List.of(1));
+        } finally {
+            rowLock.countDown();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.airlinebooking.service;
+
+import com.example.airlinebooking.TestFixtures;
+import com.example.airlinebooking.model.*;
+import com.example.airlinebooking.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SeatMapReconcilerTest {
+
+    @Autowired
+    private SeatMapReconciler seatMapReconciler;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void testRepair_RebuildsOnlyFlightsThatDisagree() {
+        // Arrange - two bookings and a three seat hold, then the stored seats are wiped
+        User user = fixtures.createUser("repair");
+        Flight damaged = fixtures.createFlight("DUB", 10);
+        Flight intact = fixtures.createFlight("DUB", 10);
+        bookingService.createBooking(user.getId(), damaged.getId());
+        bookingService.createBooking(user.getId(), damaged.getId());
+        bookingService.createBooking(user.getId(), intact.getId());
+        SeatHold hold = seatHoldService.createHold(user.getId(), damaged.getId(), 3);
+        jdbcTemplate.update("UPDATE flights SET available_seats = 10, seat_map = ? WHERE id = ?",
+                SeatMap.empty(10).toBytes(), damaged.getId());
+        long damagedVersion = flightRepository.findById(damaged.getId()).orElseThrow().getVersion();
+        long intactVersion = flightRepository.findById(intact.getId()).orElseThrow().getVersion();
+
+        // Act
+        seatMapReconciler.repair();
+
+        // Assert - booked and held seats are taken again; the intact flight is not rewritten
+        Flight repaired = flightRepository.findById(damaged.getId()).orElseThrow();
+        List<Integer> taken = new ArrayList<>(hold.getSeatNumbers());
+        bookingRepository.findByFlightAndStatus(repaired, BookingStatus.CONFIRMED)
+                .forEach(booking -> taken.add(booking.getSeatNumber()));
+        assertEquals(5, repaired.getAvailableSeats());
+        assertEquals(taken.stream().sorted().toList(), SeatMap.of(repaired).takenSeats());
+        assertEquals(damagedVersion + 1, repaired.getVersion());
+        assertEquals(intactVersion, flightRepository.findById(intact.getId()).orElseThrow().getVersion());
+    }
+}
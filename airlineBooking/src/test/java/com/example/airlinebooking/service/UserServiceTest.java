@@ -2,22 +2,26 @@ package com.example.airlinebooking.service;
 
 import com.example.airlinebooking.model.User;
 import com.example.airlinebooking.repository.UserRepository;
-import com.example.airlinebooking.repository.BookingRepository;
 import com.example.airlinebooking.exception.UserNotFoundException;
 import com.example.airlinebooking.exception.UserAlreadyExistsException;
 import com.example.airlinebooking.exception.InvalidCredentialsException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,10 +31,17 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private BookingRepository bookingRepository;
+    private BookingService bookingService;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Runs the callbacks straight through - no real transactions in a unit test
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     @InjectMocks
     private UserService userService;
@@ -55,7 +66,7 @@ class UserServiceTest {
         newUser.setPassword("password123");
         
         when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
-        when(passwordEncoder.encode("password123")).thenReturn("hashedPassword");
+        when(passwordHasher.encode("password123")).thenReturn("hashedPassword");
         when(userRepository.save(any(User.class))).thenReturn(newUser);
 
         // Act
@@ -66,7 +77,7 @@ class UserServiceTest {
         assertEquals("new@example.com", result.getEmail());
         assertEquals("New User", result.getName());
         verify(userRepository).findByEmail("new@example.com");
-        verify(passwordEncoder).encode("password123");
+        verify(passwordHasher).encode("password123");
         verify(userRepository).save(any(User.class));
     }
 
@@ -93,7 +104,7 @@ class UserServiceTest {
     void testAuthenticateUser_Success() {
         // Arrange
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("password123", "hashedPassword")).thenReturn(true);
+        when(passwordHasher.matches("password123", "hashedPassword")).thenReturn(true);
 
         // Act
         User result = userService.authenticateUser("test@example.com", "password123");
@@ -102,7 +113,22 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals("test@example.com", result.getEmail());
         verify(userRepository).findByEmail("test@example.com");
-        verify(passwordEncoder).matches("password123", "hashedPassword");
+        verify(passwordHasher).matches("password123", "hashedPassword");
+    }
+
+    @Test
+    void testAuthenticateUser_RehashesWhenCostFactorRaised() {
+        // Arrange
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password123", "hashedPassword")).thenReturn(true);
+        when(passwordHasher.needsRehash("hashedPassword")).thenReturn(true);
+        when(passwordHasher.encode("password123")).thenReturn("strongerHash");
+
+        // Act
+        User result = userService.authenticateUser("test@example.com", "password123");
+
+        // Assert
+        assertEquals("strongerHash", result.getPassword());
     }
 
     @Test
@@ -116,14 +142,14 @@ class UserServiceTest {
         });
 
         verify(userRepository).findByEmail("test@example.com");
-        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(passwordHasher, never()).matches(anyString(), anyString());
     }
 
     @Test
     void testAuthenticateUser_InvalidPassword() {
         // Arrange
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("wrongPassword", "hashedPassword")).thenReturn(false);
+        when(passwordHasher.matches("wrongPassword", "hashedPassword")).thenReturn(false);
 
         // Act & Assert
         assertThrows(InvalidCredentialsException.class, () -> {
@@ -131,7 +157,7 @@ class UserServiceTest {
         });
 
         verify(userRepository).findByEmail("test@example.com");
-        verify(passwordEncoder).matches("wrongPassword", "hashedPassword");
+        verify(passwordHasher).matches("wrongPassword", "hashedPassword");
     }
 
     @Test
@@ -175,8 +201,24 @@ class UserServiceTest {
         assertNotNull(result);
         verify(userRepository).findById(1L);
         verify(userRepository).findByEmail("updated@example.com");
-        verify(passwordEncoder).encode("newpassword");
+        verify(passwordHasher).encode("newpassword");
         verify(userRepository).save(any(User.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof UserChangedEvent changed && changed.getUserId() == 1L));
+    }
+
+    @Test
+    void testUpdateUser_HashesBeforeTransaction() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // Act
+        userService.updateUser(1L, "test@example.com", "newpassword");
+
+        // Assert - no connection is held while the hash waits for a hashing thread
+        InOrder order = inOrder(passwordHasher, transactionTemplate);
+        order.verify(passwordHasher).encode("newpassword");
+        order.verify(transactionTemplate).execute(any());
     }
 
     @Test
@@ -197,7 +239,7 @@ class UserServiceTest {
     void testDeleteUser_Success() {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        doNothing().when(bookingRepository).deleteByUser(testUser);
+        doNothing().when(bookingService).deleteUserBookings(testUser);
         doNothing().when(userRepository).delete(testUser);
 
         // Act
@@ -205,8 +247,9 @@ class UserServiceTest {
 
         // Assert
         verify(userRepository).findById(1L);
-        verify(bookingRepository).deleteByUser(testUser);
+        verify(bookingService).deleteUserBookings(testUser);
         verify(userRepository).delete(testUser);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof UserChangedEvent changed && changed.getUserId() == 1L));
     }
 
     @Test
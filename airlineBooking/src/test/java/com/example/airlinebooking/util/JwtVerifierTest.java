@@ -0,0 +1,76 @@
+package com.example.airlinebooking.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "test-secret-key-for-airline-booking-tests-0123456789";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtVerifier jwtVerifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtVerifier = new JwtVerifier(SECRET, meterRegistry);
+    }
+
+    @Test
+    void testVerify_IssuedToken() {
+        // Arrange
+        String token = new JwtUtil(SECRET).generateToken("test@example.com", 42L);
+
+        // Act
+        JwtVerifier.VerifiedToken verified = jwtVerifier.verify(token);
+
+        // Assert
+        assertEquals("test@example.com", verified.getSubject());
+        assertEquals(42L, verified.getUserId());
+        assertTrue(verified.getExpiration().after(new Date()));
+    }
+
+    @Test
+    void testVerify_ExpiredToken() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Act & Assert
+        assertNull(jwtVerifier.verify(token));
+        assertEquals(1, rejected("expired"));
+    }
+
+    @Test
+    void testVerify_WrongKey() {
+        // Arrange
+        String token = new JwtUtil("another-secret-key-that-is-long-enough-for-hs256").generateToken("test@example.com", 1L);
+
+        // Act & Assert
+        assertNull(jwtVerifier.verify(token));
+        assertEquals(1, rejected("bad_signature"));
+    }
+
+    @Test
+    void testVerify_Garbage() {
+        // Act & Assert
+        assertNull(jwtVerifier.verify("not-a-token"));
+        assertEquals(1, rejected("malformed"));
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("auth.jwt.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.cloudapilayer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Proxied streams hold a thread each for as long as they stay open, so they get their own pool
+// instead of the shared task executor. A stream that finds the pool full is refused (503)
+// rather than queued behind streams that may not end for half an hour.
+@Configuration
+public class AsyncConfig {
+	@Bean
+	public ThreadPoolTaskExecutor streamExecutor(@Value("${proxy.streams.max-threads:200}") int maxThreads) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("proxy-stream-");
+		executor.setCorePoolSize(maxThreads);
+		executor.setMaxPoolSize(maxThreads);
+		executor.setQueueCapacity(0);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setDaemon(true);
+		return executor;
+	}
+
+	@Bean
+	public WebMvcConfigurer asyncConfigurer(ThreadPoolTaskExecutor streamExecutor) {
+		return new WebMvcConfigurer() {
+			@Override
+			public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer){
+				configurer.setTaskExecutor(streamExecutor);
+			}
+		};
+	}
+}
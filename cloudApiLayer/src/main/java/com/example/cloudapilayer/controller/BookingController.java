@@ -6,6 +6,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api")
@@ -21,9 +23,9 @@ public class BookingController {
 		this.restTemplate = restTemplate;
 	}
 
-	//proxy POST /api/bookings to legacy POST /api/bookings
+	//proxy POST /api/bookings to legacy POST /api/bookings - Idempotency-Key is passed through so client retries are deduplicated
 	@PostMapping("/bookings")
-	public ResponseEntity<String> createBooking(@RequestBody @NonNull String bookingRequest, @RequestHeader(value = "Authorization", required = false) String authorization) {
+	public ResponseEntity<String> createBooking(@RequestBody @NonNull String bookingRequest, @RequestHeader(value = "Authorization", required = false) String authorization, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 		try {
 			String legacyUrl = legacyBaseUrl + "/api/bookings";
 			HttpHeaders headers = new HttpHeaders();
@@ -31,6 +33,9 @@ public class BookingController {
 			if (authorization != null) {
 				headers.set("Authorization", authorization);
 			}
+			if (idempotencyKey != null) {
+				headers.set("Idempotency-Key", idempotencyKey);
+			}
 			HttpEntity<String> entity = new HttpEntity<>(bookingRequest, headers);
 
 			String response = restTemplate.postForObject(legacyUrl, entity, String.class);
@@ -40,6 +45,28 @@ public class BookingController {
 		}
 	}
 	
+	// Proxy POST /api/bookings/group to legacy POST /api/bookings/group - one call books every leg or none
+	@PostMapping("/bookings/group")
+	public ResponseEntity<String> createGroupBooking(@RequestBody @NonNull String groupBookingRequest, @RequestHeader(value = "Authorization", required = false) String authorization, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+		try {
+			String legacyUrl = legacyBaseUrl + "/api/bookings/group";
+			HttpHeaders headers = new HttpHeaders();
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			if (authorization != null) {
+				headers.set("Authorization", authorization);
+			}
+			if (idempotencyKey != null) {
+				headers.set("Idempotency-Key", idempotencyKey);
+			}
+			HttpEntity<String> entity = new HttpEntity<>(groupBookingRequest, headers);
+
+			String response = restTemplate.postForObject(legacyUrl, entity, String.class);
+			return ResponseEntity.ok(response);
+		} catch (Exception e) {
+			throw e; // Let the global exception handler deal with it
+		}
+	}
+	
 	// Proxy GET /api/bookings/{id} to legacy GET /api/bookings/{id}
 	@GetMapping("/bookings/{id}")
 	public ResponseEntity<String> getBooking(@PathVariable String id, @RequestHeader(value = "Authorization", required = false) String authorization) {
@@ -74,15 +101,36 @@ public class BookingController {
 		}
 	}
 	
+	// Proxy GET /api/bookings/history to legacy GET /api/bookings/history - status, limit and cursor pass through as sent
+	@GetMapping("/bookings/history")
+	public ResponseEntity<String> getBookingHistory(HttpServletRequest request, @RequestHeader(value = "Authorization", required = false) String authorization) {
+		try {
+			String query = request.getQueryString();
+			String legacyUrl = legacyBaseUrl + "/api/bookings/history" + (query != null ? "?" + query : "");
+			HttpHeaders headers = new HttpHeaders();
+			if (authorization != null) {
+				headers.set("Authorization", authorization);
+			}
+			HttpEntity<Void> entity = new HttpEntity<>(headers);
+			ResponseEntity<String> response = restTemplate.exchange(URI.create(legacyUrl), HttpMethod.GET, entity, String.class);
+			return ResponseEntity.ok(response.getBody());
+		} catch (Exception e) {
+			throw e; // Let the global exception handler deal with it
+		}
+	}
+	
 	// Proxy POST /api/bookings/{id}/cancel to legacy POST /api/bookings/{id}/cancel
 	@PostMapping("/bookings/{id}/cancel")
-	public ResponseEntity<String> cancelBooking(@PathVariable String id, @RequestHeader(value = "Authorization", required = false) String authorization) {
+	public ResponseEntity<String> cancelBooking(@PathVariable String id, @RequestHeader(value = "Authorization", required = false) String authorization, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 		try {
 			String legacyUrl = legacyBaseUrl + "/api/bookings/" + id + "/cancel";
 			HttpHeaders headers = new HttpHeaders();
 			if (authorization != null) {
 				headers.set("Authorization", authorization);
 			}
+			if (idempotencyKey != null) {
+				headers.set("Idempotency-Key", idempotencyKey);
+			}
 			HttpEntity<Void> entity = new HttpEntity<>(headers);
 			ResponseEntity<String> response = restTemplate.exchange(legacyUrl, HttpMethod.POST, entity, String.class);
 			return ResponseEntity.ok(response.getBody());
@@ -3,11 +3,23 @@ package com.example.cloudapilayer.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.util.StreamUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Value;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -24,38 +36,101 @@ public class FlightsController {
 	}
 	
 	@GetMapping("/flights")
-	public ResponseEntity<String> getFlights(){
+	public ResponseEntity<String> getFlights(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
 		try {
 			//URL of the legacy reservation system's flights endpoint
 			String legacyUrl = legacyBaseUrl + "/api/flights";
-			String response = restTemplate.getForObject(legacyUrl, String.class);
-			return ResponseEntity.ok(response);
+			return conditionalGet(URI.create(legacyUrl), ifNoneMatch);
 		} catch (Exception e) {
 			throw e; // Let the global exception handler deal with it
 		}
 	}
 	
+	@GetMapping("/flights/export")
+	public ResponseEntity<StreamingResponseBody> exportFlights(){
+		//URL of the legacy reservation system's NDJSON export - copied through as it arrives instead of buffered into a String
+		String legacyUrl = legacyBaseUrl + "/api/flights/export";
+		StreamingResponseBody body = out -> restTemplate.execute(URI.create(legacyUrl), HttpMethod.GET, null, response -> {
+			StreamUtils.copy(response.getBody(), out);
+			return null;
+		});
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
 	@GetMapping("/flights/available")
-	public ResponseEntity<String> getAvailableFlights(){
+	public ResponseEntity<String> getAvailableFlights(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
 		try {
 			//URL of the legacy reservation system's available flights endpoint
 			String legacyUrl = legacyBaseUrl + "/api/flights/available";
-			String response = restTemplate.getForObject(legacyUrl, String.class);
-			return ResponseEntity.ok(response);
+			return conditionalGet(URI.create(legacyUrl), ifNoneMatch);
+		} catch (Exception e) {
+			throw e; // Let the global exception handler deal with it
+		}
+	}
+	
+	@GetMapping("/flights/search")
+	public ResponseEntity<String> searchFlights(HttpServletRequest request, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+		try {
+			//URL of the legacy reservation system's flight search endpoint - filters and cursor are passed through as sent
+			String query = request.getQueryString();
+			String legacyUrl = legacyBaseUrl + "/api/flights/search" + (query != null ? "?" + query : "");
+			return conditionalGet(URI.create(legacyUrl), ifNoneMatch);
 		} catch (Exception e) {
 			throw e; // Let the global exception handler deal with it
 		}
 	}
 	
+	@GetMapping("/flights/availability/stream")
+	public ResponseEntity<StreamingResponseBody> streamAvailability(HttpServletRequest request){
+		//URL of the legacy reservation system's availability event stream - flightIds/origin/destination are passed through as sent
+		String query = request.getQueryString();
+		String legacyUrl = legacyBaseUrl + "/api/flights/availability/stream" + (query != null ? "?" + query : "");
+		StreamingResponseBody body = out -> restTemplate.execute(URI.create(legacyUrl), HttpMethod.GET,
+				upstream -> upstream.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM)), response -> {
+			//Flushed after every read, so each event reaches the client as soon as it arrives
+			InputStream in = response.getBody();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+				out.flush();
+			}
+			return null;
+		});
+		return ResponseEntity.ok()
+				.contentType(MediaType.TEXT_EVENT_STREAM)
+				.header(HttpHeaders.CACHE_CONTROL, "no-cache")
+				.body(body);
+	}
+	
 	@GetMapping("/flights/{id}")
-	public ResponseEntity<String> getFlightById(@PathVariable String id){
+	public ResponseEntity<String> getFlightById(@PathVariable String id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
 		try {
 			//URL of the legacy reservation system's flight by ID endpoint
 			String legacyUrl = legacyBaseUrl + "/api/flights/" + id;
-			String response = restTemplate.getForObject(legacyUrl, String.class);
-			return ResponseEntity.ok(response);
+			return conditionalGet(URI.create(legacyUrl), ifNoneMatch);
 		} catch (Exception e) {
 			throw e; // Let the global exception handler deal with it
 		}
 	}
+	
+	//Passes the client's If-None-Match through and relays the legacy ETag, so an unchanged catalog
+	//comes back as an empty 304 end to end
+	private ResponseEntity<String> conditionalGet(URI legacyUrl, String ifNoneMatch){
+		HttpHeaders headers = new HttpHeaders();
+		if (ifNoneMatch != null) {
+			headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		ResponseEntity<String> response = restTemplate.exchange(legacyUrl, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+		ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatusCode());
+		String etag = response.getHeaders().getETag();
+		if (etag != null) {
+			builder.eTag(etag);
+		}
+		String cacheControl = response.getHeaders().getCacheControl();
+		if (cacheControl != null) {
+			builder.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+		}
+		return builder.body(response.getBody());
+	}
 }
@@ -0,0 +1,92 @@
+package com.example.cloudapilayer.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Verifies bearer tokens issued by the legacy reservation system. Key and parser are built
+// once and each token is parsed exactly once, which checks signature and expiry together.
+@Component
+public class JwtVerifier {
+
+    public enum RejectReason {
+        EXPIRED, BAD_SIGNATURE, MALFORMED, UNSUPPORTED, MISSING_SUBJECT, INVALID
+    }
+
+    private final JwtParser parser;
+    private final Map<RejectReason, Counter> rejections = new EnumMap<>(RejectReason.class);
+
+    public JwtVerifier(@Value("${jwt.secret}") String secretKey, MeterRegistry meterRegistry) {
+        if (secretKey == null || secretKey.trim().isEmpty()) {
+            throw new IllegalStateException("JWT_SECRET environment variable must be set");
+        }
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        for (RejectReason reason : RejectReason.values()) {
+            rejections.put(reason, Counter.builder("auth.jwt.rejected")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    // Null when the token is not acceptable; the reason is counted, never thrown
+    public VerifiedToken verify(String token) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException e) {
+            return reject(RejectReason.EXPIRED);
+        } catch (SignatureException e) {
+            return reject(RejectReason.BAD_SIGNATURE);
+        } catch (MalformedJwtException e) {
+            return reject(RejectReason.MALFORMED);
+        } catch (UnsupportedJwtException e) {
+            return reject(RejectReason.UNSUPPORTED);
+        } catch (JwtException | IllegalArgumentException e) {
+            return reject(RejectReason.INVALID);
+        }
+        if (claims.getSubject() == null) {
+            return reject(RejectReason.MISSING_SUBJECT);
+        }
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration());
+    }
+
+    private VerifiedToken reject(RejectReason reason) {
+        rejections.get(reason).increment();
+        return null;
+    }
+
+    public static final class VerifiedToken {
+        private final String subject;
+        private final Date expiration;
+
+        VerifiedToken(String subject, Date expiration) {
+            this.subject = subject;
+            this.expiration = expiration == null ? null : new Date(expiration.getTime());
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public Date getExpiration() {
+            return expiration == null ? null : new Date(expiration.getTime());
+        }
+    }
+}